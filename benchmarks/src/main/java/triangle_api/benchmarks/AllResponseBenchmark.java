@@ -0,0 +1,93 @@
+package triangle_api.benchmarks;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import triangle_api.AllTrianglesDecoder;
+import triangle_api.Helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures decoding of the GET /triangle/all response the way getAllTriangles did it
+ *  before (response.jsonPath().getList("id")) and with the streaming AllTrianglesDecoder, with canned bodies of
+ *  different sizes, so it runs offline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllResponseBenchmark {
+
+    @Param({"0", "10", "1000", "100000"})
+    public int triangles;
+
+    private String body;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        body = allBody(triangles);
+        bytes = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<String> jsonPathIds() {
+        Response response = new ResponseBuilder()
+                .setStatusCode(200)
+                .setContentType(ContentType.JSON)
+                .setBody(body)
+                .build();
+
+        return response.jsonPath().getList("id");
+    }
+
+    @Benchmark
+    public List<String> streamingIds() {
+        return AllTrianglesDecoder.ids(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public int streamingSides(Blackhole blackhole) throws IOException {
+        return AllTrianglesDecoder.decode(new ByteArrayInputStream(bytes), (id, firstSide, secondSide, thirdSide) -> {
+            blackhole.consume(id);
+            blackhole.consume(firstSide + secondSide + thirdSide);
+        });
+    }
+
+    /** This method returns a body of the GET /triangle/all response with the specified number of triangles. */
+    static String allBody(int triangles) {
+        StringBuilder body = new StringBuilder("[");
+
+        for (int i = 0; i < triangles; i++) {
+            double[] sides = Helpers.genSides(Helpers.Strategy.VALID_VALUES, "#.##", 1000);
+
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"").append(UUID.randomUUID())
+                    .append("\",\"firstSide\":").append(sides[0])
+                    .append(",\"secondSide\":").append(sides[1])
+                    .append(",\"thirdSide\":").append(sides[2])
+                    .append('}');
+        }
+        return body.append(']').toString();
+    }
+}
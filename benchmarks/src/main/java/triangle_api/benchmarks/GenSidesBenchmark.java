@@ -0,0 +1,40 @@
+package triangle_api.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import triangle_api.Helpers;
+
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures the cost of one Helpers.genSides call for each strategy, pattern and bound. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenSidesBenchmark {
+
+    @Param({"VALID_VALUES", "SUM_VALUES", "INVALID_VALUES", "EQUILATERAL_VALUES", "ISOSCELES_VALUES",
+            "WITH_ZERO_VALUES"})
+    public Helpers.Strategy strategy;
+
+    @Param({"#", "#.#", "#.##"})
+    public String pattern;
+
+    @Param({"10", "1000"})
+    public int bound;
+
+    @Benchmark
+    public double[] genSides() {
+        return Helpers.genSides(strategy, pattern, bound);
+    }
+}
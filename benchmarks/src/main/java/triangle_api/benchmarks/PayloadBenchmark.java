@@ -0,0 +1,48 @@
+package triangle_api.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import triangle_api.Helpers;
+
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures building the POST /triangle payload the way createTriangle does it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadBenchmark {
+
+    @Param({"#", "#.##"})
+    public String pattern;
+
+    private double[][] sides;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        // let's prepare the sides in advance, so only the payload itself is measured
+        sides = new double[1024][];
+        for (int i = 0; i < sides.length; i++) {
+            sides[i] = Helpers.genSides(Helpers.Strategy.VALID_VALUES, pattern, 1000);
+        }
+    }
+
+    @Benchmark
+    public String payload() {
+        double[] triangle = sides[next++ & (sides.length - 1)];
+        return Helpers.payload(triangle[0], triangle[1], triangle[2]);
+    }
+}
@@ -0,0 +1,222 @@
+package triangle_api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/** This class limits the number of bulk requests in flight, i.e. the requests of Bulk.forEach and of the
+ *  TriangleAsyncClient, and adapts the limit to the capacity of the service the same way TCP adapts its window:
+ *  while the latency stays flat and the limit is used up, the limit grows by one per limit of successful requests
+ *  (additive increase), and it's cut by half when a request fails without a response or with 429 or 5xx
+ *  (multiplicative decrease). A rising latency cuts the limit too, in proportion to how far the smoothed round-trip
+ *  time went beyond twice the no-load one (the gradient).
+ *
+ *  A decrease is applied once per window: the requests which were sent before the last decrease were sent at the
+ *  old limit, so their failures don't cut the limit again. The limit starts at the 'triangle.bulk.concurrency'
+ *  system property (8 by default) and stays between 1 and 'triangle.bulk.maxConcurrency' (32 by default).
+ *
+ *  The limit, the round-trip times and the number of decreases are reported at the end of the suite by the
+ *  AdaptiveLimitListener, so the real capacity of the service is visible.
+ */
+public final class AdaptiveLimit {
+
+    public static final String MAX_PROPERTY = "triangle.bulk.maxConcurrency";
+
+    /** The share of the limit which is kept after a failure */
+    private static final double BACKOFF = 0.5;
+
+    /** How many times the smoothed round-trip time may exceed the no-load one before the limit is cut */
+    private static final double TOLERANCE = 2.0;
+
+    /** The weight of the last round-trip time in the smoothed one */
+    private static final double SMOOTHING = 0.2;
+
+    /** The no-load round-trip time creeps up by 0.1% per request, so a lasting change of the service is accepted */
+    private static final double MIN_RTT_DRIFT = 1.001;
+
+    private static final ThreadLocal<Boolean> LIMITED = ThreadLocal.withInitial(() -> false);
+
+    private static final ExchangeHook HOOK = AdaptiveLimit::limit;
+
+    private final int max;
+
+    private final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+
+    private double limit;
+
+    private double maxReached;
+
+    private int inFlight;
+
+    private double minRttNanos = Double.NaN;
+
+    private double smoothedRttNanos = Double.NaN;
+
+    private boolean decreased;
+
+    private long decreasedAt;
+
+    private long requests;
+
+    private long overloads;
+
+    private long decreases;
+
+    AdaptiveLimit(int initial, int max) {
+        this.max = Math.max(1, max);
+        this.limit = Math.max(1, Math.min(initial, this.max));
+        this.maxReached = limit;
+    }
+
+    /** This method returns the limit shared by all bulk requests of the JVM. */
+    public static AdaptiveLimit shared() {
+        return Holder.INSTANCE;
+    }
+
+    /** This method returns the hook which sends the requests of the TriangleAsyncClient and of the limited() actions
+     *  within the limit, it's one of the ExchangeHooks of every request and does nothing for the other requests.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method runs the action with its requests sent within the shared limit, e.g. on a thread of the Bulk.
+     *
+     * @param action - action to run
+     */
+    static void limited(Runnable action) {
+        boolean previous = LIMITED.get();
+        LIMITED.set(true);
+        try {
+            action.run();
+        } finally {
+            LIMITED.set(previous);
+        }
+    }
+
+    /** This method takes a place in the limit.
+     *
+     * @return - future which completes when the request may be sent, it must be followed by release()
+     */
+    synchronized CompletableFuture<Void> acquire() {
+        if (inFlight < permits()) {
+            inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> place = new CompletableFuture<>();
+        waiting.add(place);
+
+        return place;
+    }
+
+    /** This method frees the place of a finished request and adapts the limit to its outcome.
+     *
+     * @param sentAt - System.nanoTime() when the request was sent
+     * @param rttNanos - round-trip time of the request
+     * @param status - status code of the response, EndpointTimings.NO_RESPONSE if there is none
+     */
+    void release(long sentAt, long rttNanos, int status) {
+        List<CompletableFuture<Void>> admitted = new ArrayList<>();
+
+        synchronized (this) {
+            // the request ran at the full limit, so only then the limit is worth raising
+            boolean saturated = inFlight >= permits();
+            inFlight--;
+            adapt(sentAt, rttNanos, status, saturated);
+
+            while (inFlight < permits() && !waiting.isEmpty()) {
+                inFlight++;
+                admitted.add(waiting.poll());
+            }
+        }
+        // let's not run the waiting requests under the lock
+        admitted.forEach(place -> place.complete(null));
+    }
+
+    /** This method returns the current state of the limit, e.g. {limit=12.4, maxLimit=16.1, inFlight=0,
+     *  minRttMs=1.2, smoothedRttMs=1.9, requests=340, overloads=2, decreases=1}.
+     */
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+
+        metrics.put("limit", limit);
+        metrics.put("maxLimit", maxReached);
+        metrics.put("inFlight", inFlight);
+        metrics.put("minRttMs", Double.isNaN(minRttNanos) ? null : minRttNanos / 1_000_000);
+        metrics.put("smoothedRttMs", Double.isNaN(smoothedRttNanos) ? null : smoothedRttNanos / 1_000_000);
+        metrics.put("requests", requests);
+        metrics.put("overloads", overloads);
+        metrics.put("decreases", decreases);
+
+        return metrics;
+    }
+
+    private int permits() {
+        return Math.max(1, (int) limit);
+    }
+
+    private void adapt(long sentAt, long rttNanos, int status, boolean saturated) {
+        requests++;
+
+        if (status == EndpointTimings.NO_RESPONSE || status == 429 || status >= 500) {
+            overloads++;
+            decrease(sentAt, BACKOFF);
+            return;
+        }
+        minRttNanos = Double.isNaN(minRttNanos) ? rttNanos : Math.min(rttNanos, minRttNanos * MIN_RTT_DRIFT);
+        smoothedRttNanos = Double.isNaN(smoothedRttNanos)
+                ? rttNanos
+                : smoothedRttNanos + SMOOTHING * (rttNanos - smoothedRttNanos);
+
+        double gradient = TOLERANCE * minRttNanos / smoothedRttNanos;
+
+        // a slow request while the latency is falling, e.g. after the warm-up of the service, isn't a reason to cut
+        if (gradient < 1 && rttNanos >= smoothedRttNanos) {
+            decrease(sentAt, Math.max(BACKOFF, gradient));
+        } else if (gradient >= 1 && saturated) {
+            limit = Math.min(max, limit + 1 / limit);
+            maxReached = Math.max(maxReached, limit);
+        }
+    }
+
+    private void decrease(long sentAt, double factor) {
+        if (decreased && sentAt - decreasedAt <= 0) {
+            return;
+        }
+        limit = Math.max(1, limit * factor);
+        decreased = true;
+        decreasedAt = System.nanoTime();
+        decreases++;
+    }
+
+    private static CompletableFuture<Reply> limit(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        if (!exchange.isAsync() && !LIMITED.get()) {
+            return next.get();
+        }
+        AdaptiveLimit shared = shared();
+        CompletableFuture<Void> place = shared.acquire();
+
+        if (!exchange.isAsync()) {
+            // a blocking request waits for its place on its own thread rather than on the thread which releases it
+            place.join();
+        }
+        return place.thenCompose(ignored -> {
+            long sentAt = System.nanoTime();
+
+            return next.get().whenComplete((reply, error) -> shared.release(sentAt, System.nanoTime() - sentAt,
+                    reply == null ? EndpointTimings.NO_RESPONSE : reply.status()));
+        });
+    }
+
+    /** Lazy holder, so the limit is created only once. */
+    private static final class Holder {
+
+        private static final AdaptiveLimit INSTANCE = new AdaptiveLimit(
+                Integer.getInteger(Bulk.CONCURRENCY_PROPERTY, 8), Integer.getInteger(MAX_PROPERTY, 32));
+    }
+}
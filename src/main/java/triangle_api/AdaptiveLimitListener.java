@@ -0,0 +1,30 @@
+package triangle_api;
+
+import io.qameta.allure.model.Status;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.Reporter;
+
+import java.util.Map;
+
+/** This listener reports the state of the AdaptiveLimit of the bulk requests at the end of the suite as the
+ *  'Bulk concurrency' result of the Allure report, so the real capacity of the service is visible.
+ */
+public class AdaptiveLimitListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, Object> bulk = AdaptiveLimit.shared().metrics();
+
+        if ((Long) bulk.get("requests") == 0) {
+            return;
+        }
+        String limit = String.format("Bulk concurrency: the limit is %.1f (at most %.1f), the round-trip time is "
+                        + "%.2f ms (no-load %.2f ms), %d requests, %d of them failed, the limit was cut %d times",
+                bulk.get("limit"), bulk.get("maxLimit"), bulk.get("smoothedRttMs"), bulk.get("minRttMs"),
+                bulk.get("requests"), bulk.get("overloads"), bulk.get("decreases"));
+        Reporter.log(limit, true);
+
+        SuiteResults.attach(suite.getName(), "Bulk concurrency", "Bulk concurrency", Status.PASSED, null, limit);
+    }
+}
@@ -0,0 +1,140 @@
+package triangle_api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.restassured.response.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** This class decodes the body of the GET /triangle/all response token by token and passes each triangle to a
+ *  consumer as soon as it's read, so no tree of the whole body is built and the memory needed doesn't depend on
+ *  the number of triangles, e.g. for a stand-in with a large quota.
+ *
+ *  Unknown fields are skipped, a missing side is passed as NaN.
+ */
+public final class AllTrianglesDecoder {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private AllTrianglesDecoder() {
+    }
+
+    /** This interface receives the triangles of the response one by one. */
+    @FunctionalInterface
+    public interface TriangleConsumer {
+
+        void accept(String id, double firstSide, double secondSide, double thirdSide);
+    }
+
+    /** This method reads the triangles from the body and passes each of them to the consumer, the stream isn't
+     *  closed.
+     *
+     * @param body - body of the GET /triangle/all response
+     * @param consumer - consumer of the triangles
+     * @return - the number of triangles read
+     * @throws IOException - if the body can't be read or it isn't an array of triangles
+     */
+    public static int decode(InputStream body, TriangleConsumer consumer) throws IOException {
+        int count = 0;
+
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of triangles but got " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                readTriangle(parser, consumer);
+                count++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a triangle but got " + parser.currentToken());
+            }
+        }
+        return count;
+    }
+
+    /** This method reads a single triangle, e.g. the body of the POST /triangle or GET /triangle/{id} response.
+     *
+     * @param body - body with a triangle object
+     * @param consumer - consumer of the triangle
+     * @throws IOException - if the body can't be read or it isn't a triangle
+     */
+    public static void decodeOne(InputStream body, TriangleConsumer consumer) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a triangle but got " + parser.currentToken());
+            }
+            readTriangle(parser, consumer);
+        }
+    }
+
+    /** This method returns the IDs of all triangles of the body in the same order.
+     *
+     * @param body - body of the GET /triangle/all response
+     * @return - list of IDs or an empty list
+     */
+    public static List<String> ids(InputStream body) {
+        List<String> ids = new ArrayList<>();
+        try {
+            decode(body, (id, firstSide, secondSide, thirdSide) -> ids.add(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode the list of triangles", e);
+        }
+        return ids;
+    }
+
+    /** This method reads the fields of the object the parser is at and passes the triangle to the consumer. */
+    private static void readTriangle(JsonParser parser, TriangleConsumer consumer) throws IOException {
+        String id = null;
+        double firstSide = Double.NaN;
+        double secondSide = Double.NaN;
+        double thirdSide = Double.NaN;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "id":
+                    id = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                    break;
+                case "firstSide":
+                    firstSide = side(parser, value);
+                    break;
+                case "secondSide":
+                    secondSide = side(parser, value);
+                    break;
+                case "thirdSide":
+                    thirdSide = side(parser, value);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected end of the triangle: " + parser.currentToken());
+        }
+        consumer.accept(id, firstSide, secondSide, thirdSide);
+    }
+
+    /** This method returns the body of the response as a new stream. Unlike response.asInputStream(), it keeps the
+     *  body in the response, otherwise a filter which reads the stream would leave nothing for the next ones.
+     */
+    static InputStream body(Response response) {
+        return new ByteArrayInputStream(response.asByteArray());
+    }
+
+    private static double side(JsonParser parser, JsonToken value) throws IOException {
+        return value.isNumeric() ? parser.getDoubleValue() : Double.NaN;
+    }
+}
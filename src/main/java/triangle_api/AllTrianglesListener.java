@@ -0,0 +1,24 @@
+package triangle_api;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.Reporter;
+
+import java.util.Map;
+
+/** This listener logs at the end of the suite how many Helpers.getAllTriangles calls sent a request of their own and
+ *  how many of them shared a request in flight or reused a recent result.
+ */
+public class AllTrianglesListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, Long> all = Helpers.allTrianglesCounters();
+
+        if (all.get("calls") > 0) {
+            Reporter.log(String.format("GET /triangle/all: %d calls of the helpers sent %d requests, %d calls shared "
+                            + "a request in flight and %d reused a recent result", all.get("calls"), all.get("loads"),
+                    all.get("coalesced"), all.get("cached")), true);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package triangle_api;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.attachment.AttachmentData;
+import io.qameta.allure.attachment.FreemarkerAttachmentRenderer;
+import io.qameta.allure.attachment.http.HttpRequestAttachment;
+import io.qameta.allure.attachment.http.HttpResponseAttachment;
+import io.qameta.allure.model.Attachment;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/** This class attaches the requests and responses of the tests to the Allure report like AllureRestAssured does,
+ *  with the same templates, but it doesn't render and write them while the test is running:
+ *  the hook() only keeps the exchanges of the test, and when the test is finished the AllureAttachmentsListener
+ *  attaches them. Every N-th exchange is sampled when it's sent, where N is set with the 'triangle.allure.sample'
+ *  system property (1 by default, i.e. everything is attached): a successful test gets its sampled exchanges,
+ *  a failed one gets them as well as the last exchanges which weren't sampled, as many as its ExchangeLog keeps.
+ *  Only the tests started by the AllureAttachmentsListener keep their exchanges, e.g. the requests of the
+ *  configuration methods aren't kept; the requests a test sends from other threads, e.g. the Bulk ones, are kept
+ *  for it if they're run with its test case, see runWith().
+ *
+ *  The templates are rendered and the files are written by a background thread; its queue is bounded by the
+ *  'triangle.allure.queue' system property (256 by default), if it's full the test thread renders the attachment
+ *  itself rather than keeping more of them in memory.
+ */
+public final class AllureAttachments {
+
+    public static final String SAMPLE_PROPERTY = "triangle.allure.sample";
+
+    public static final String QUEUE_PROPERTY = "triangle.allure.queue";
+
+    private static final int SAMPLE = Math.max(1, Integer.getInteger(SAMPLE_PROPERTY, 1));
+
+    private static final FreemarkerAttachmentRenderer REQUEST_RENDERER =
+            new FreemarkerAttachmentRenderer("http-request.ftl");
+
+    private static final FreemarkerAttachmentRenderer RESPONSE_RENDERER =
+            new FreemarkerAttachmentRenderer("http-response.ftl");
+
+    private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, Integer.getInteger(QUEUE_PROPERTY, 256))),
+            runnable -> {
+                Thread thread = new Thread(runnable, "allure-attachments");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private static final Map<String, Pending> PENDING = new ConcurrentHashMap<>();
+
+    private static final AtomicLong CAPTURED = new AtomicLong();
+
+    // the test case a thread sends the requests for if it isn't the one Allure runs on it, e.g. a thread of the Bulk
+    private static final ThreadLocal<Optional<String>> TEST_CASE = new ThreadLocal<>();
+
+    private static final ExchangeHook HOOK = AllureAttachments::keep;
+
+    private AllureAttachments() {
+    }
+
+    /** This method returns the hook which keeps the exchanges of the running test, it's one of the reported
+     *  ExchangeHooks in place of AllureRestAssured.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method starts keeping the exchanges of the test, it must be called on the test thread once its Allure
+     *  result is started.
+     */
+    static void started() {
+        Allure.getLifecycle().getCurrentTestCase().ifPresent(testCase -> PENDING.put(testCase, new Pending()));
+    }
+
+    /** This method attaches the exchanges of the test to its Allure result, it must be called on the test thread
+     *  before the result is written.
+     *
+     * @param failed - true to attach the exchanges which weren't sampled as well, false to attach the sampled ones
+     */
+    static void attach(boolean failed) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        Optional<String> testCase = lifecycle.getCurrentTestCase();
+
+        if (testCase.isEmpty()) {
+            return;
+        }
+        Pending pending = PENDING.remove(testCase.get());
+        if (pending == null) {
+            return;
+        }
+        List<Attachment> attachments = new ArrayList<>();
+
+        for (Captured exchange : pending.exchanges()) {
+            if (failed || exchange.sampled) {
+                attachments.add(write(exchange.request, REQUEST_RENDERER));
+                if (exchange.response != null) {
+                    attachments.add(write(exchange.response, RESPONSE_RENDERER));
+                }
+            }
+        }
+        if (!attachments.isEmpty()) {
+            lifecycle.updateTestCase(testCase.get(), result -> result.getAttachments().addAll(attachments));
+        }
+    }
+
+    /** This method returns the test case the requests of the current thread are kept for.
+     *
+     * @return - UUID of the Allure test case or null if the requests aren't sent by a test
+     */
+    static String testCase() {
+        Optional<String> own = TEST_CASE.get();
+        return (own == null ? Allure.getLifecycle().getCurrentTestCase() : own).orElse(null);
+    }
+
+    /** This method runs the action on the current thread with the requests kept for the specified test case, e.g. a
+     *  bulk request of the test it was sent for. Allure's own context isn't changed, so nothing else is attached to
+     *  the test from this thread.
+     *
+     * @param testCase - UUID of the test case, see testCase(), null if the requests aren't sent by a test
+     * @param action - action to run
+     */
+    static void runWith(String testCase, Runnable action) {
+        Optional<String> own = TEST_CASE.get();
+        TEST_CASE.set(Optional.ofNullable(testCase));
+        try {
+            action.run();
+        } finally {
+            if (own == null) {
+                TEST_CASE.remove();
+            } else {
+                TEST_CASE.set(own);
+            }
+        }
+    }
+
+    /** This method waits until all attachments handed to the background thread are written. */
+    static void flush() {
+        try {
+            // the writer is a single thread, so the marker is run after everything submitted before it
+            WRITER.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to write the Allure attachments", e.getCause());
+        }
+    }
+
+    private static Attachment write(AttachmentData data, FreemarkerAttachmentRenderer renderer) {
+        String source = UUID.randomUUID() + "-attachment.html";
+
+        WRITER.execute(() -> {
+            byte[] content = renderer.render(data).getContent().getBytes(StandardCharsets.UTF_8);
+            Allure.getLifecycle().writeAttachment(source, new ByteArrayInputStream(content));
+        });
+        return new Attachment().setName(data.getName()).setType("text/html").setSource(source);
+    }
+
+    private static CompletableFuture<Reply> keep(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        String testCase = testCase();
+        Pending pending = testCase == null ? null : PENDING.get(testCase);
+
+        if (pending == null) {
+            // e.g. the requests of a configuration method, they aren't attached to any test
+            return next.get();
+        }
+        HttpRequestAttachment.Builder request = HttpRequestAttachment.Builder.create("Request", exchange.uri())
+                .setMethod(exchange.method())
+                .setHeaders(exchange.headers());
+        if (exchange.body() != null) {
+            request.setBody(exchange.body());
+        }
+        Captured captured = new Captured(request.build(), CAPTURED.getAndIncrement() % SAMPLE == 0);
+        pending.add(captured);
+
+        return next.get().whenComplete((reply, error) -> {
+            if (reply != null) {
+                captured.response = HttpResponseAttachment.Builder.create(reply.statusLine())
+                        .setResponseCode(reply.status())
+                        .setHeaders(reply.headers())
+                        .setBody(reply.isStreamed() ? "(the body was streamed)" : reply.text())
+                        .build();
+            }
+        });
+    }
+
+    /** The exchanges a test keeps: all sampled ones and the last ones which weren't sampled. */
+    private static final class Pending {
+
+        private final List<Captured> exchanges = new ArrayList<>();
+
+        private final Deque<Captured> unsampled = new ArrayDeque<>();
+
+        synchronized void add(Captured exchange) {
+            exchanges.add(exchange);
+
+            if (!exchange.sampled) {
+                unsampled.add(exchange);
+                if (unsampled.size() > ExchangeLog.SIZE) {
+                    exchanges.remove(unsampled.poll());
+                }
+            }
+        }
+
+        synchronized List<Captured> exchanges() {
+            return new ArrayList<>(exchanges);
+        }
+    }
+
+    /** A request and its response, the response is null if the request failed. */
+    private static final class Captured {
+
+        private final HttpRequestAttachment request;
+
+        private final boolean sampled;
+
+        private volatile HttpResponseAttachment response;
+
+        private Captured(HttpRequestAttachment request, boolean sampled) {
+            this.request = request;
+            this.sampled = sampled;
+        }
+    }
+}
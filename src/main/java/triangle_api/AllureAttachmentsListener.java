@@ -0,0 +1,33 @@
+package triangle_api;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+/** This listener starts keeping the exchanges of each test when it's invoked, attaches them to the Allure report
+ *  right after the test is finished, while its result is still open, and waits for the attachments to be written at
+ *  the end of the suite.
+ */
+public class AllureAttachmentsListener implements IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            AllureAttachments.started();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            AllureAttachments.attach(testResult.getStatus() != ITestResult.SUCCESS);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        AllureAttachments.flush();
+    }
+}
@@ -0,0 +1,107 @@
+package triangle_api;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** This class is used instead of org.testng.Reporter for the informational messages of the helpers and the tests.
+ *  Reporter keeps every message in memory until the end of the suite, while this class only keeps the recent ones:
+ *  a message is added to the ExchangeLog of the current thread, so it's reported if the test fails, and it's written
+ *  to the standard output by a background thread. Unlike Reporter.log, a message isn't added to the Reporter output
+ *  of the test, and it's written to the standard output after the caller went on, from the background thread.
+ *
+ *  The queue of the background thread is bounded by the 'triangle.log.queue' system property (1024 by default), the
+ *  messages which don't fit are dropped rather than slowing the tests down, and each message is cut to 4096
+ *  characters. The queue is written out at the end of the suite by the AsyncReporterListener, see flush().
+ */
+public final class AsyncReporter {
+
+    public static final String QUEUE_PROPERTY = "triangle.log.queue";
+
+    private static final BlockingQueue<String> QUEUE =
+            new ArrayBlockingQueue<>(Math.max(1, Integer.getInteger(QUEUE_PROPERTY, 1024)));
+
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private static final AtomicLong QUEUED = new AtomicLong();
+
+    // the number of messages the background thread has written, flush() waits on it
+    private static final Object WRITTEN_LOCK = new Object();
+
+    private static long written;
+
+    static {
+        Thread writer = new Thread(AsyncReporter::write, "async-reporter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private AsyncReporter() {
+    }
+
+    /** This method logs the message to the ExchangeLog of the current thread and hands it to the background thread
+     *  for the standard output, it keeps only the recent messages in memory.
+     *
+     * @param message - message to log
+     * @param logToStandardOut - true if the message should be written to the standard output as well
+     */
+    public static void log(String message, boolean logToStandardOut) {
+        String cut = ExchangeLog.cut(message, ExchangeLog.MAX_BODY);
+        ExchangeLog.message(cut);
+
+        if (logToStandardOut) {
+            if (QUEUE.offer(cut)) {
+                QUEUED.incrementAndGet();
+            } else {
+                DROPPED.incrementAndGet();
+            }
+        }
+    }
+
+    /** This method waits until the messages queued before the call are written to the standard output, e.g. at the
+     *  end of the suite, since the background thread is a daemon one and doesn't keep the JVM running.
+     *
+     * @param timeoutMillis - how long to wait at most
+     */
+    static void flush(long timeoutMillis) {
+        long queued = QUEUED.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        synchronized (WRITTEN_LOCK) {
+            try {
+                for (long left = timeoutMillis; written < queued && left > 0;
+                     left = deadline - System.currentTimeMillis()) {
+                    WRITTEN_LOCK.wait(left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        reportDropped();
+    }
+
+    private static void write() {
+        while (true) {
+            try {
+                String message = QUEUE.take();
+
+                reportDropped();
+                System.out.println(message);
+                synchronized (WRITTEN_LOCK) {
+                    written++;
+                    WRITTEN_LOCK.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static void reportDropped() {
+        long dropped = DROPPED.getAndSet(0);
+
+        if (dropped > 0) {
+            System.out.println("[AsyncReporter] " + dropped + " messages were dropped, the queue is full");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package triangle_api;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/** This listener writes out the messages the AsyncReporter still keeps in its queue at the end of the suite, so the
+ *  last messages of the tests aren't lost when the JVM exits.
+ */
+public class AsyncReporterListener implements ISuiteListener {
+
+    /** How long the end of the suite waits for the queue at most */
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Override
+    public void onFinish(ISuite suite) {
+        AsyncReporter.flush(TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,73 @@
+package triangle_api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/** This class runs the same request for many items at once, e.g. a DELETE for each ID of a list. The number of
+ *  requests in flight is bounded by the AdaptiveLimit shared by the whole JVM, so parallel tests can't overload the
+ *  service together; the limit starts at the 'triangle.bulk.concurrency' system property (8 by default) and follows
+ *  the latency and the failures of the service.
+ */
+final class Bulk {
+
+    static final String CONCURRENCY_PROPERTY = "triangle.bulk.concurrency";
+
+    // the threads over the limit wait for their turn in the AdaptiveLimit, so there are as many as it may allow
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Integer.getInteger(AdaptiveLimit.MAX_PROPERTY, 32),
+            runnable -> {
+                Thread thread = new Thread(runnable, "triangle-bulk");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private Bulk() {
+    }
+
+    /** This method applies the action to every item concurrently and waits until all of them are done.
+     *  The action must not rely on the thread it's called from, e.g. the request specification should be taken
+     *  by the caller.
+     *
+     * @param items - items to process
+     * @param action - action which is applied to each item
+     * @return - items which failed mapped to their errors, an empty map if all of them succeeded
+     */
+    static <T> Map<T, Throwable> forEach(Collection<T> items, Consumer<T> action) {
+        List<Future<?>> futures = new ArrayList<>(items.size());
+        // let's keep the exchanges in the log of the caller, so they're reported if its test fails,
+        // recorded to the cassette and attached to the Allure report as the exchanges of its test
+        ExchangeLog.Buffer log = ExchangeLog.current();
+        String scope = Cassette.scope();
+        String testCase = AllureAttachments.testCase();
+
+        for (T item : items) {
+            Runnable request = () -> AdaptiveLimit.limited(() -> action.accept(item));
+
+            futures.add(EXECUTOR.submit(() -> ExchangeLog.runWith(log, () -> Cassette.runWith(scope,
+                    () -> AllureAttachments.runWith(testCase, request)))));
+        }
+        Map<T, Throwable> failures = new LinkedHashMap<>();
+        int i = 0;
+
+        for (T item : items) {
+            try {
+                futures.get(i++).get();
+            } catch (ExecutionException e) {
+                failures.put(item, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for the bulk requests", e);
+            }
+        }
+        return failures;
+    }
+}
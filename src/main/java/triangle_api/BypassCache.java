@@ -0,0 +1,14 @@
+package triangle_api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** This annotation marks a test method, or every test method of a class, which verifies the responses of the service
+ *  itself, so its requests are never answered by the ResourceCache.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface BypassCache {
+}
@@ -0,0 +1,419 @@
+package triangle_api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/** This class records the exchanges with the Triangle Service to a cassette file and replays them without the
+ *  service, it's turned on with -Dtriangle.cassette=record or -Dtriangle.cassette=replay; the file is set with
+ *  'triangle.cassette.file' (./cassettes/triangle.cassette by default).
+ *
+ *  A request is recognized by its fingerprint: the test it was sent by (class, method and parameters), the method,
+ *  the path, the personal token (any token of the TenantPool is the same 'tenant', since the tokens may be random)
+ *  and the body, plus how many times the same fingerprint was sent by the test before. While a cassette is used,
+ *  the sides generated by Helpers.genSides are seeded by the test as well, so the bodies are the same in both runs.
+ *
+ *  The requests of a test depend on what the client knows when the test starts, e.g. the Inventory and the
+ *  Fixtures of its token, which the tests run before on the same token changed. So the record keeps that state of
+ *  every test as well, and the replay brings the client back to it before the test, see TenantLeaseListener. The
+ *  requests which reach the state a test requires depend on the tests run before too, so they are recorded apart
+ *  from the test and aren't sent in the replay at all, see TenantStateListener.
+ *
+ *  The cassette is an append-only file of records, each of them is the fingerprint and the status line, headers
+ *  and body of the response. For the replay the file is memory-mapped and indexed by the fingerprints once, the
+ *  responses are decoded from the mapped file only when they are requested. A request which wasn't recorded, or
+ *  was sent more times than in the record, fails with an AssertionError.
+ */
+public final class Cassette {
+
+    public static final String MODE_PROPERTY = "triangle.cassette";
+
+    public static final String FILE_PROPERTY = "triangle.cassette.file";
+
+    private static final byte[] MAGIC = "TRICAS1\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Mode MODE = Mode.of(System.getProperty(MODE_PROPERTY, ""));
+
+    private static final ExchangeHook HOOK = Cassette::exchange;
+
+    private static final ThreadLocal<String> SCOPE = new ThreadLocal<>();
+
+    private static final Map<String, AtomicInteger> SENT = new ConcurrentHashMap<>();
+
+    private Cassette() {
+    }
+
+    /** The modes of the cassette */
+    enum Mode {
+        OFF,
+        RECORD,
+        REPLAY;
+
+        private static Mode of(String value) {
+            switch (value.trim().toLowerCase()) {
+                case "":
+                case "off":
+                    return OFF;
+                case "record":
+                    return RECORD;
+                case "replay":
+                    return REPLAY;
+                default:
+                    throw new IllegalStateException("Unexpected " + MODE_PROPERTY + " value: '" + value
+                            + "', expected 'record', 'replay' or 'off'");
+            }
+        }
+    }
+
+    /** This method returns the hook which records or replays the exchanges. It's the last of the ExchangeHooks before
+     *  the AdaptiveLimit, so the hooks before it see the replayed responses as real ones, while a replayed request
+     *  neither waits for the limit nor is timed.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method returns true if the responses are replayed from the cassette rather than sent to the service. */
+    public static boolean isReplay() {
+        return MODE == Mode.REPLAY;
+    }
+
+    /** This method returns true if the exchanges are recorded to the cassette. */
+    public static boolean isRecord() {
+        return MODE == Mode.RECORD;
+    }
+
+    /** This method prepares the client for the test which is about to run on the current thread: the sides are
+     *  seeded by the test, and the state of the client the test starts from is recorded or, in the replay, restored.
+     */
+    static void started() {
+        if (MODE == Mode.OFF) {
+            return;
+        }
+        Helpers.seedSides(scope());
+        String key = key(scope() + "\n(state of the client)");
+
+        if (MODE == Mode.RECORD) {
+            Record.INSTANCE.write(new Recorded(key, 200, "", Map.of(), ClientState.take()));
+        } else {
+            ClientState.restore(Replay.INSTANCE.find(key).body);
+        }
+    }
+
+    /** This method turns the seeded sides of the current thread off once its test is finished. */
+    static void finished() {
+        if (MODE != Mode.OFF) {
+            Helpers.seedSides(null);
+        }
+    }
+
+    /** This method returns the test the requests of the current thread are sent by. */
+    static String scope() {
+        String scope = SCOPE.get();
+        if (scope != null) {
+            return scope;
+        }
+        ITestResult result = Reporter.getCurrentTestResult();
+
+        return result == null ? "suite" : result.getTestClass().getName() + "." + result.getMethod().getMethodName()
+                + Arrays.deepToString(result.getParameters());
+    }
+
+    /** This method runs the action with the requests sent by the specified test, e.g. on a thread of the Bulk. The
+     *  sides of the thread aren't seeded again, so the sides the test generates go on the same way.
+     *
+     * @param scope - the test, see scope(), null to take the running test
+     * @param action - action to run
+     */
+    static void runWith(String scope, Runnable action) {
+        String previous = SCOPE.get();
+        setScope(scope);
+        try {
+            action.run();
+        } finally {
+            setScope(previous);
+        }
+    }
+
+    /** This method sets the test the requests of the current thread are sent by, null to take the running test; the
+     *  sides generated on the thread are seeded by that test while a cassette is used.
+     */
+    static void scopeTo(String scope) {
+        setScope(scope);
+        if (MODE != Mode.OFF) {
+            Helpers.seedSides(scope());
+        }
+    }
+
+    private static void setScope(String scope) {
+        if (scope == null) {
+            SCOPE.remove();
+        } else {
+            SCOPE.set(scope);
+        }
+    }
+
+    /** This method returns the key of the fingerprint in the cassette: the fingerprint and how many times it was sent
+     *  by the test before. It must be called on the thread the request is sent from.
+     */
+    private static String key(String fingerprint) {
+        return fingerprint + "\n" + SENT.computeIfAbsent(fingerprint, key -> new AtomicInteger()).getAndIncrement();
+    }
+
+    private static String fingerprint(String method, String uri, String token, String body) {
+        // the base URI differs between the runs, e.g. the port of the embedded stand-in, and so do the IDs which
+        // the service generated, so the request is matched by its entry point and its order within the test
+        String user = token == null ? "" : TenantPool.shared().tokens().contains(token) ? "tenant" : token;
+
+        return scope() + "\n" + Endpoint.of(method, uri) + "\n" + user + "\n" + (body == null ? "" : body);
+    }
+
+    private static CompletableFuture<Reply> exchange(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        if (MODE == Mode.OFF) {
+            return next.get();
+        }
+        String key = key(fingerprint(exchange.method(), exchange.uri(), exchange.token(), exchange.body()));
+
+        if (MODE == Mode.REPLAY) {
+            Recorded recorded = Replay.INSTANCE.find(key);
+            return CompletableFuture.completedFuture(
+                    new Reply(recorded.status, recorded.statusLine, recorded.headers, recorded.body));
+        }
+        return next.get().thenApply(reply -> {
+            Record.INSTANCE.write(new Recorded(key, reply.status(), reply.statusLine(), reply.headers(),
+                    reply.body()));
+            return reply;
+        });
+    }
+
+    private static Path file() {
+        return Paths.get(System.getProperty(FILE_PROPERTY, "./cassettes/triangle.cassette"));
+    }
+
+    /** A recorded response */
+    private static final class Recorded {
+
+        private final String key;
+
+        private final int status;
+
+        private final String statusLine;
+
+        private final Map<String, String> headers;
+
+        private final byte[] body;
+
+        private Recorded(String key, int status, String statusLine, Map<String, String> headers, byte[] body) {
+            this.key = key;
+            this.status = status;
+            this.statusLine = statusLine;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    /** The state of the client a test starts from: the Inventory and the Fixtures of its personal token. */
+    private static final class ClientState {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        private static byte[] take() {
+            ObjectNode state = MAPPER.createObjectNode();
+            List<String> ids = Inventory.current().snapshot();
+            if (ids != null) {
+                ids.forEach(state.putArray("inventory")::add);
+            }
+            ObjectNode fixtures = state.putObject("fixtures");
+            Fixtures.current().snapshot().forEach((kind, triangle) -> fixtures.putObject(kind)
+                    .put("id", triangle.id())
+                    .put("firstSide", triangle.firstSide())
+                    .put("secondSide", triangle.secondSide())
+                    .put("thirdSide", triangle.thirdSide()));
+            try {
+                return MAPPER.writeValueAsBytes(state);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to record the state of the client", e);
+            }
+        }
+
+        private static void restore(byte[] recorded) {
+            JsonNode state;
+            try {
+                state = MAPPER.readTree(recorded);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to replay the state of the client", e);
+            }
+            List<String> ids = null;
+            if (state.has("inventory")) {
+                ids = new ArrayList<>();
+                for (JsonNode id : state.get("inventory")) {
+                    ids.add(id.asText());
+                }
+            }
+            Inventory.current().restore(ids);
+
+            Map<String, Triangle> fixtures = new HashMap<>();
+            state.get("fixtures").fields().forEachRemaining(fixture -> fixtures.put(fixture.getKey(),
+                    new Triangle(fixture.getValue().get("id").asText(),
+                            fixture.getValue().get("firstSide").asDouble(),
+                            fixture.getValue().get("secondSide").asDouble(),
+                            fixture.getValue().get("thirdSide").asDouble())));
+            Fixtures.current().restore(fixtures);
+        }
+    }
+
+    /** The cassette which is being recorded, the file is replaced on the first record of the run. */
+    private static final class Record {
+
+        private static final Record INSTANCE = new Record();
+
+        private final DataOutputStream output;
+
+        private Record() {
+            Path file = file();
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+                output.write(MAGIC);
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to create the cassette " + file, e);
+            }
+        }
+
+        synchronized void write(Recorded recorded) {
+            try {
+                byte[] key = recorded.key.getBytes(StandardCharsets.UTF_8);
+                byte[] statusLine = recorded.statusLine.getBytes(StandardCharsets.UTF_8);
+
+                output.writeInt(key.length);
+                output.write(key);
+                output.writeInt(recorded.status);
+                output.writeInt(statusLine.length);
+                output.write(statusLine);
+                output.writeInt(recorded.headers.size());
+                for (Map.Entry<String, String> header : recorded.headers.entrySet()) {
+                    byte[] name = header.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[] value = header.getValue().getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(name.length);
+                    output.write(name);
+                    output.writeInt(value.length);
+                    output.write(value);
+                }
+                output.writeInt(recorded.body.length);
+                output.write(recorded.body);
+                // let's keep what's recorded even if the run is killed
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to record to the cassette " + file(), e);
+            }
+        }
+    }
+
+    /** The cassette which is being replayed: the file is mapped and indexed once, the records are decoded lazily. */
+    private static final class Replay {
+
+        private static final Replay INSTANCE = new Replay();
+
+        private final MappedByteBuffer buffer;
+
+        /** The position of every record by its key, i.e. the fingerprint and the number of the same requests before */
+        private final Map<String, Integer> records = new HashMap<>();
+
+        private Replay() {
+            Path file = file();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to open the cassette " + file
+                        + ", record it first with -D" + MODE_PROPERTY + "=record", e);
+            }
+            ByteBuffer index = buffer.duplicate();
+            byte[] magic = new byte[MAGIC.length];
+            index.get(magic);
+
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IllegalStateException(file + " isn't a cassette");
+            }
+            while (index.remaining() >= Integer.BYTES) {
+                int position = index.position();
+                String key = string(index);
+
+                records.put(key, position);
+                // let's skip the rest of the response, it's decoded only if it's replayed
+                index.getInt();
+                skip(index);
+                for (int headers = index.getInt(); headers > 0; headers--) {
+                    skip(index);
+                    skip(index);
+                }
+                skip(index);
+            }
+        }
+
+        /** This method returns the recorded response of the key.
+         *
+         * @throws AssertionError - if the key wasn't recorded, i.e. the test sent another request than in the record
+         */
+        Recorded find(String key) {
+            Integer position = records.get(key);
+
+            if (position == null) {
+                throw new AssertionError("The request wasn't recorded to the cassette " + file()
+                        + ", the test doesn't send the same requests as in the record:\n" + key);
+            }
+            ByteBuffer record = buffer.duplicate();
+            record.position(position);
+
+            String recordedKey = string(record);
+            int status = record.getInt();
+            String statusLine = string(record);
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (int count = record.getInt(); count > 0; count--) {
+                headers.put(string(record), string(record));
+            }
+            byte[] body = new byte[record.getInt()];
+            record.get(body);
+
+            return new Recorded(recordedKey, status, statusLine, headers, body);
+        }
+
+        private static String string(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static void skip(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length);
+        }
+    }
+}
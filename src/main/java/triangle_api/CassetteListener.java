@@ -0,0 +1,25 @@
+package triangle_api;
+
+import org.testng.IDataProviderListener;
+import org.testng.IDataProviderMethod;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+/** This listener lets the data providers send the same requests in the record and in the replay of a Cassette:
+ *  while a data provider is running, the sides are seeded by the test method it provides the data for. The tests
+ *  themselves are started and finished by the TenantLeaseListener, once their tokens are in the required state.
+ */
+public class CassetteListener implements IDataProviderListener {
+
+    @Override
+    public void beforeDataProviderExecution(IDataProviderMethod dataProviderMethod, ITestNGMethod method,
+                                            ITestContext context) {
+        Cassette.scopeTo(method.getRealClass().getName() + "." + method.getMethodName() + "#data");
+    }
+
+    @Override
+    public void afterDataProviderExecution(IDataProviderMethod dataProviderMethod, ITestNGMethod method,
+                                           ITestContext context) {
+        Cassette.scopeTo(null);
+    }
+}
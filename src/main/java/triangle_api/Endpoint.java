@@ -0,0 +1,93 @@
+package triangle_api;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** This class describes which entry point of the Triangle Service a request was sent to, so the requests to
+ *  /triangle/{triangleId}/area for any ID are recognized as the same entry point, e.g. 'GET /triangle/{id}/area'.
+ */
+public final class Endpoint {
+
+    private static final String ROOT = "/triangle";
+
+    private final String method;
+
+    private final String route;
+
+    private final String id;
+
+    private Endpoint(String method, String route, String id) {
+        this.method = method;
+        this.route = route;
+        this.id = id;
+    }
+
+    /** This method recognizes the entry point of a request.
+     *
+     * @param method - HTTP method, e.g. 'GET'
+     * @param uri - full URI of the request
+     * @return - the entry point, for unknown paths the route is the path itself
+     */
+    public static Endpoint of(String method, String uri) {
+        // the URI isn't parsed with java.net.URI since invalid IDs may contain characters which it rejects
+        String path = uri.replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/]*", "");
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        int start = path.indexOf(ROOT);
+
+        if (start < 0) {
+            return new Endpoint(method, path, null);
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.substring(start + ROOT.length()).split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        switch (segments.size()) {
+            case 0:
+                return new Endpoint(method, ROOT, null);
+            case 1:
+                return segments.get(0).equals("all")
+                        ? new Endpoint(method, ROOT + "/all", null)
+                        : new Endpoint(method, ROOT + "/{id}", decode(segments.get(0)));
+            case 2:
+                return new Endpoint(method, ROOT + "/{id}/" + segments.get(1), decode(segments.get(0)));
+            default:
+                return new Endpoint(method, path, null);
+        }
+    }
+
+    public String method() {
+        return method;
+    }
+
+    /** This method returns the path of the entry point with '{id}' in place of the triangle ID. */
+    public String route() {
+        return route;
+    }
+
+    /** This method returns the triangle ID of the request or null if the entry point has no ID. */
+    public String id() {
+        return id;
+    }
+
+    /** This method returns true if the request was sent to the specified entry point, e.g. is("GET", "/triangle/all").
+     */
+    public boolean is(String method, String route) {
+        return this.method.equals(method) && this.route.equals(route);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + route;
+    }
+
+    private static String decode(String segment) {
+        return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
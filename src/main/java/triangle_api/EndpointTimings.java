@@ -0,0 +1,114 @@
+package triangle_api;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** This class records how long every request of the suite takes, per entry point and response status, e.g. all
+ *  requests to 'GET /triangle/{id}/area' which returned 404 share the same histogram. The time is measured by
+ *  the hook() around the HTTP exchange only, i.e. the Allure attachments and the validation aren't included.
+ *  The requests which failed without a response are recorded with the NO_RESPONSE status.
+ *
+ *  The histograms are summarized at the end of the suite by the EndpointTimingsListener.
+ */
+public final class EndpointTimings {
+
+    /** The status of the requests which failed without a response, e.g. because of a reset connection or a timeout */
+    public static final int NO_RESPONSE = 0;
+
+    private static final Map<String, Map<Integer, Histogram>> HISTOGRAMS = new ConcurrentSkipListMap<>();
+
+    private static final ExchangeHook HOOK = EndpointTimings::time;
+
+    private EndpointTimings() {
+    }
+
+    /** This method returns the hook which records the timings, it's the last of the reported ExchangeHooks, so it's
+     *  the closest one to the HTTP exchange.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method records a request which took the specified time.
+     *
+     * @param endpoint - entry point of the request, e.g. 'GET /triangle/{id}/area'
+     * @param status - status code of the response, NO_RESPONSE if there is none
+     * @param nanos - duration of the request in nanoseconds
+     */
+    public static void record(String endpoint, int status, long nanos) {
+        HISTOGRAMS.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, key -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /** This method returns the summary of every recorded entry point and status, ordered by the entry point and
+     *  the status, e.g. {endpoint=GET /triangle/all, status=200, count=12, p50=1.25, ..., max=8.5}. The latencies
+     *  are in milliseconds.
+     *
+     * @return - list of summaries, an empty list if nothing was recorded
+     */
+    public static List<Map<String, Object>> summary() {
+        List<Map<String, Object>> summary = new ArrayList<>();
+
+        HISTOGRAMS.forEach((endpoint, statuses) -> new TreeMap<>(statuses).forEach((status, histogram) -> {
+            Histogram copy = histogram.copy();
+            Map<String, Object> row = new LinkedHashMap<>();
+
+            row.put("endpoint", endpoint);
+            row.put("status", status);
+            row.put("count", copy.getTotalCount());
+            row.put("p50", millis(copy.getValueAtPercentile(50)));
+            row.put("p90", millis(copy.getValueAtPercentile(90)));
+            row.put("p99", millis(copy.getValueAtPercentile(99)));
+            row.put("p99.9", millis(copy.getValueAtPercentile(99.9)));
+            row.put("max", millis(copy.getMaxValue()));
+            summary.add(row);
+        }));
+        return summary;
+    }
+
+    /** This method returns the timings of all statuses of the entry point together, in microseconds.
+     *
+     * @param endpoint - entry point, e.g. 'GET /triangle/{id}/area'
+     * @return - a copy of the merged histograms, null if the entry point wasn't requested
+     */
+    static Histogram histogram(String endpoint) {
+        Map<Integer, Histogram> statuses = HISTOGRAMS.get(endpoint);
+
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        Histogram merged = new Histogram(3);
+        statuses.values().forEach(histogram -> merged.add(histogram.copy()));
+
+        return merged;
+    }
+
+    /** This method removes all recorded timings. */
+    public static void reset() {
+        HISTOGRAMS.clear();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static CompletableFuture<Reply> time(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        String endpoint = exchange.endpoint().toString();
+        long start = System.nanoTime();
+
+        return next.get().whenComplete((reply, error) ->
+                record(endpoint, reply == null ? NO_RESPONSE : reply.status(), System.nanoTime() - start));
+    }
+}
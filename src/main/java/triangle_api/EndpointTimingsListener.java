@@ -0,0 +1,119 @@
+package triangle_api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/** This listener summarizes the EndpointTimings at the end of the suite: p50, p90, p99, p99.9 and max of every
+ *  entry point and status are written to the JSON file of the 'triangle.timings.file' system property
+ *  (./test-output/endpoint-timings.json by default) and attached to the Allure report as the 'Endpoint timings'
+ *  result, so a regression of a single entry point is visible rather than hidden in the total duration.
+ *
+ *  The timings are also checked against the LatencyBudgets, every breached percentile is reported and the
+ *  'Latency budgets' result of the Allure report fails; the suite itself is failed by SetUp.checkLatencyBudgets().
+ *
+ *  If the requests were sent through the FaultProxy, its report is written to the file of the
+ *  'triangle.faults.report' system property (./test-output/fault-injection.json by default) and attached as the
+ *  'Fault injection' result.
+ */
+public class EndpointTimingsListener implements ISuiteListener {
+
+    public static final String FILE_PROPERTY = "triangle.timings.file";
+
+    public static final String FAULTS_FILE_PROPERTY = "triangle.faults.report";
+
+    @Override
+    public void onStart(ISuite suite) {
+        EndpointTimings.reset();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        List<Map<String, Object>> summary = EndpointTimings.summary();
+
+        if (!summary.isEmpty()) {
+            reportTimings(suite.getName(), summary);
+        }
+
+        FaultProxy proxy = Target.proxy();
+        if (proxy != null) {
+            reportFaults(suite.getName(), proxy.report());
+        }
+    }
+
+    private static void reportTimings(String suiteName, List<Map<String, Object>> summary) {
+        Path file = Paths.get(System.getProperty(FILE_PROPERTY, "./test-output/endpoint-timings.json"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summary);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the endpoint timings to " + file, e);
+        }
+        String table = table(summary);
+        Reporter.log("Endpoint timings (ms), also written to " + file + ":\n" + table, true);
+
+        SuiteResults.attach(suiteName, "Endpoint timings", "Endpoint timings (ms)", Status.PASSED, null, table);
+
+        List<String> breaches = LatencyBudgets.breaches();
+        String report = breaches.isEmpty()
+                ? "All entry points are within the latency budgets."
+                : "The latency budgets were breached:\n" + String.join("\n", breaches);
+        Reporter.log(report, true);
+
+        SuiteResults.attach(suiteName, "Latency budgets", "Latency budgets",
+                breaches.isEmpty() ? Status.PASSED : Status.FAILED,
+                breaches.isEmpty() ? null : new StatusDetails().setMessage(report), report);
+    }
+
+    private static void reportFaults(String suiteName, List<Map<String, Object>> faults) {
+        Path file = Paths.get(System.getProperty(FAULTS_FILE_PROPERTY, "./test-output/fault-injection.json"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), faults);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the fault injection report to " + file, e);
+        }
+        StringBuilder table = new StringBuilder(String.format("%-32s %8s %8s %7s %8s %7s %9s %9s %9s %9s %8s%n",
+                "Endpoint", "Requests", "Delayed", "Resets", "Partials", "Bursts", "Up p50", "Up p99",
+                "Client p50", "Client p99", "Failures"));
+
+        for (Map<String, Object> row : faults) {
+            table.append(String.format("%-32s %8s %8s %7s %8s %7s %9.2f %9.2f %9.2f %9.2f %8s%n",
+                    row.get("endpoint"), row.get("requests"), row.get("delayed"), row.get("resets"),
+                    row.get("partials"), row.get("bursts"), row.get("upstreamP50"), row.get("upstreamP99"),
+                    row.get("clientP50"), row.get("clientP99"), row.get("clientFailures")));
+        }
+        Reporter.log("Fault injection (ms), also written to " + file + ":\n" + table, true);
+
+        SuiteResults.attach(suiteName, "Fault injection", "Fault injection (ms)", Status.PASSED, null,
+                table.toString());
+    }
+
+    private static String table(List<Map<String, Object>> summary) {
+        StringBuilder table = new StringBuilder(String.format("%-32s %6s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Status", "Count", "p50", "p90", "p99", "p99.9", "max"));
+
+        for (Map<String, Object> row : summary) {
+            table.append(String.format("%-32s %6s %8s %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("endpoint"), row.get("status"), row.get("count"), row.get("p50"), row.get("p90"),
+                    row.get("p99"), row.get("p99.9"), row.get("max")));
+        }
+        return table.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package triangle_api;
+
+import io.restassured.http.Header;
+import io.restassured.specification.FilterableRequestSpecification;
+
+import java.net.http.HttpRequest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** This class is a request to the Triangle Service as the ExchangeHooks see it, whichever client sends it: the
+ *  method, the full URI, the headers and the body.
+ */
+final class Exchange {
+
+    private final String method;
+
+    private final String uri;
+
+    private final Map<String, String> headers;
+
+    private final String body;
+
+    private final boolean async;
+
+    private final Endpoint endpoint;
+
+    Exchange(String method, String uri, Map<String, String> headers, String body, boolean async) {
+        this.method = method;
+        this.uri = uri;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.async = async;
+        this.endpoint = Endpoint.of(method, uri);
+    }
+
+    /** This method returns the exchange of a request of the TriangleClient. */
+    static Exchange of(FilterableRequestSpecification requestSpec) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : requestSpec.getHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+        String body = requestSpec.getBody() == null ? null : String.valueOf((Object) requestSpec.getBody());
+
+        return new Exchange(requestSpec.getMethod(), requestSpec.getURI(), headers, body, false);
+    }
+
+    /** This method returns the exchange of a request of the TriangleAsyncClient.
+     *
+     * @param request - request to send
+     * @param body - body of the request, null if there is none
+     */
+    static Exchange of(HttpRequest request, String body) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.headers().map().forEach((name, values) -> headers.put(name, String.join(",", values)));
+
+        return new Exchange(request.method(), request.uri().toString(), headers, body, true);
+    }
+
+    String method() {
+        return method;
+    }
+
+    String uri() {
+        return uri;
+    }
+
+    Endpoint endpoint() {
+        return endpoint;
+    }
+
+    /** This method returns the headers of the request in the order they were set. */
+    Map<String, String> headers() {
+        return headers;
+    }
+
+    /** This method returns the personal token of the request, i.e. 'X-User' value, null if there is none. */
+    String token() {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if ("X-User".equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /** This method returns the body of the request, null if there is none. */
+    String body() {
+        return body;
+    }
+
+    /** This method returns true if the caller doesn't wait for the reply, i.e. the request of the
+     *  TriangleAsyncClient, so the hooks must not block the calling thread.
+     */
+    boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri;
+    }
+}
@@ -0,0 +1,24 @@
+package triangle_api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/** This interface is a step every request to the Triangle Service goes through, whichever client sends it, e.g. the
+ *  validation of the response or the timings; the steps are listed in the ExchangeHooks.
+ *
+ *  The hook is called on the thread which sends the request, so it takes the context of the test, e.g. the running
+ *  test or its ExchangeLog, before it proceeds. The reply may be completed on another thread, e.g. a thread of the
+ *  HTTP client, so the callbacks of the reply must use only what was taken before.
+ */
+@FunctionalInterface
+interface ExchangeHook {
+
+    /** This method handles the exchange.
+     *
+     * @param exchange - request which is being sent
+     * @param next - sends the request through the rest of the hooks, it never throws: a failed request completes
+     *             the future exceptionally
+     * @return - future with the reply, e.g. the reply of next or a reply of the hook itself
+     */
+    CompletableFuture<Reply> around(Exchange exchange, Supplier<CompletableFuture<Reply>> next);
+}
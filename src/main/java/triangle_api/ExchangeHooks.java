@@ -0,0 +1,101 @@
+package triangle_api;
+
+import io.restassured.filter.Filter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/** This class holds the hooks every request to the Triangle Service goes through, in the order they're called, so
+ *  the TriangleClient and the TriangleAsyncClient send their requests the same way: the TriangleClient runs them in
+ *  the filter() of its request specifications, the TriangleAsyncClient runs them around every HTTP exchange.
+ *
+ *  REPORTED are the hooks of the requests of the tests:
+ *  ResponseSchemas - validates the response against the schema of its payload;
+ *  ExchangeLog - keeps the exchange in the ring buffer of the test;
+ *  Inventory - keeps the triangles of the personal token up to date;
+ *  AllureAttachments - keeps the exchange for the Allure report of the test;
+ *  ResourceCache - answers the requests of the immutable triangles which were already received;
+ *  Cassette - records the exchange or replays it without the service;
+ *  AdaptiveLimit - sends the bulk and the asynchronous requests within the limit of the requests in flight;
+ *  LatencyBudgets - checks the budget of the request;
+ *  EndpointTimings - records how long the request took, it's the closest one to the HTTP exchange.
+ *
+ *  UNREPORTED are the hooks of the requests which aren't a part of any test, e.g. the load runs: the same hooks
+ *  without the Allure attachments, the cache, the cassette, the budgets and the timings.
+ */
+final class ExchangeHooks {
+
+    static final List<ExchangeHook> REPORTED = List.of(ResponseSchemas.hook(), ExchangeLog.hook(), Inventory.hook(),
+            AllureAttachments.hook(), ResourceCache.hook(), Cassette.hook(), AdaptiveLimit.hook(),
+            LatencyBudgets.hook(), EndpointTimings.hook());
+
+    static final List<ExchangeHook> UNREPORTED = List.of(ResponseSchemas.hook(), ExchangeLog.hook(),
+            Inventory.hook(), AdaptiveLimit.hook());
+
+    private ExchangeHooks() {
+    }
+
+    /** This method returns the filter which runs the hooks around the requests of a RestAssured specification, the
+     *  HTTP exchange is done by RestAssured once all hooks proceed.
+     *
+     * @param hooks - REPORTED or UNREPORTED
+     */
+    static Filter filter(List<ExchangeHook> hooks) {
+        return (requestSpec, responseSpec, context) -> {
+            CompletableFuture<Reply> reply = run(hooks, Exchange.of(requestSpec),
+                    () -> CompletableFuture.completedFuture(Reply.of(context.next(requestSpec, responseSpec))));
+            try {
+                // the hooks don't switch the threads of a blocking client, so the reply is already complete
+                return reply.get().toResponse(requestSpec.getConfig());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + requestSpec.getURI(), e);
+            } catch (ExecutionException e) {
+                throw ExchangeHooks.<RuntimeException>rethrow(cause(e));
+            }
+        };
+    }
+
+    /** This method sends the exchange through the hooks.
+     *
+     * @param hooks - REPORTED or UNREPORTED
+     * @param exchange - request to send
+     * @param transport - sends the request to the service once all hooks proceed
+     * @return - future with the reply, it completes exceptionally if a hook or the transport failed
+     */
+    static CompletableFuture<Reply> run(List<ExchangeHook> hooks, Exchange exchange,
+                                        Supplier<CompletableFuture<Reply>> transport) {
+        return proceed(hooks, 0, exchange, transport);
+    }
+
+    /** This method returns the error a future was completed with, without the wrappers of the CompletableFuture. */
+    static Throwable cause(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static CompletableFuture<Reply> proceed(List<ExchangeHook> hooks, int index, Exchange exchange,
+                                                    Supplier<CompletableFuture<Reply>> transport) {
+        try {
+            return index == hooks.size()
+                    ? transport.get()
+                    : hooks.get(index).around(exchange, () -> proceed(hooks, index + 1, exchange, transport));
+        } catch (Throwable e) {
+            // e.g. an IOException of RestAssured, the hooks which proceeded get it as the failure of the request
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** This method throws the error as it is, e.g. an IOException which RestAssured throws without declaring it. */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T rethrow(Throwable error) throws T {
+        throw (T) error;
+    }
+}
@@ -0,0 +1,126 @@
+package triangle_api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/** This class keeps the last exchanges and log messages of each thread in a fixed-size ring buffer instead of
+ *  logging every request, so the memory used doesn't grow with the length of the run. The buffer is dumped to the
+ *  report only if the test fails, see the ExchangeLogListener.
+ *
+ *  The size of the buffer is set with the 'triangle.log.exchanges' system property (20 by default); the bodies are
+ *  cut to 4096 characters. The requests sent by the Bulk on behalf of a test are kept in the buffer of that test.
+ */
+public final class ExchangeLog {
+
+    public static final String SIZE_PROPERTY = "triangle.log.exchanges";
+
+    static final int MAX_BODY = 4096;
+
+    static final int SIZE = Math.max(1, Integer.getInteger(SIZE_PROPERTY, 20));
+
+    private static final ThreadLocal<Buffer> CURRENT = ThreadLocal.withInitial(Buffer::new);
+
+    private static final ExchangeHook HOOK = ExchangeLog::record;
+
+    private ExchangeLog() {
+    }
+
+    /** This method returns the hook which records the exchanges, it's one of the ExchangeHooks of every request. */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method returns the buffer of the current thread. */
+    static Buffer current() {
+        return CURRENT.get();
+    }
+
+    /** This method runs the action on the current thread with the specified buffer, e.g. a bulk request with the
+     *  buffer of the test it was sent for.
+     */
+    static void runWith(Buffer buffer, Runnable action) {
+        Buffer own = CURRENT.get();
+        CURRENT.set(buffer);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(own);
+        }
+    }
+
+    /** This method adds the message to the buffer of the current thread. */
+    static void message(String message) {
+        CURRENT.get().add(message);
+    }
+
+    /** This method returns the content of the buffer of the current thread, the oldest entry first, and empties it.
+     *
+     * @return - the entries separated by blank lines, an empty string if there are none
+     */
+    public static String drain() {
+        return CURRENT.get().drain();
+    }
+
+    /** This method empties the buffer of the current thread. */
+    public static void clear() {
+        CURRENT.get().drain();
+    }
+
+    static String cut(String text, int max) {
+        return text == null || text.length() <= max
+                ? text
+                : text.substring(0, max) + "... (" + (text.length() - max) + " more characters)";
+    }
+
+    private static CompletableFuture<Reply> record(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        // the reply may come on another thread, so the buffer of the test is taken right away
+        Buffer buffer = current();
+        StringBuilder entry = new StringBuilder(exchange.toString());
+
+        exchange.headers().forEach((name, value) -> entry.append('\n').append(name).append(": ").append(value));
+        if (exchange.body() != null) {
+            entry.append("\n\n").append(cut(exchange.body(), MAX_BODY));
+        }
+        return next.get().whenComplete((reply, error) -> {
+            if (reply == null) {
+                buffer.add(entry.append("\n\n=> ").append(ExchangeHooks.cause(error)).toString());
+                return;
+            }
+            entry.append("\n\n=> ").append(reply.statusLine());
+
+            String body = reply.isStreamed() ? "(the body was streamed)" : reply.text();
+            if (!body.isEmpty()) {
+                entry.append('\n').append(cut(body, MAX_BODY));
+            }
+            buffer.add(entry.toString());
+        });
+    }
+
+    /** This class is a ring buffer of the last entries, it can be shared by the threads working for the same test. */
+    static final class Buffer {
+
+        private final String[] entries = new String[SIZE];
+
+        private int next;
+
+        private int size;
+
+        synchronized void add(String entry) {
+            entries[next] = entry;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+
+        synchronized String drain() {
+            StringBuilder content = new StringBuilder();
+
+            for (int i = 0; i < size; i++) {
+                int index = (next - size + i + entries.length) % entries.length;
+                content.append(content.length() == 0 ? "" : "\n\n").append(entries[index]);
+                entries[index] = null;
+            }
+            size = 0;
+            return content.toString();
+        }
+    }
+}
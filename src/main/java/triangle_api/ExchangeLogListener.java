@@ -0,0 +1,29 @@
+package triangle_api;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/** This listener reports the ExchangeLog of a failed test: the last requests, responses and messages of the test
+ *  are added to its Reporter output. The log is emptied before each test, so only the exchanges of the test itself
+ *  are reported.
+ */
+public class ExchangeLogListener implements IInvokedMethodListener, ITestListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ExchangeLog.clear();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        String log = ExchangeLog.drain();
+
+        if (!log.isEmpty()) {
+            Reporter.setCurrentTestResult(result);
+            Reporter.log("The last exchanges of " + result.getMethod().getMethodName() + ":\n" + log, true);
+        }
+    }
+}
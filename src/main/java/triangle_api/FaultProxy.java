@@ -0,0 +1,678 @@
+package triangle_api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.ProtocolException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** This class is an in-process HTTP proxy which is put in front of the target of the suite to see how the suite
+ *  behaves when the service is slow or unreliable, e.g. which timeouts and concurrency limits it needs. The proxy
+ *  is turned on with the 'triangle.faults' system property, the path of a JSON file (or a classpath resource) with
+ *  the faults of every entry point:
+ *  {"seed": 42, "endpoints": {"GET /triangle/all": {"latency": {"distribution": "lognormal", "median": 200,
+ *  "sigma": 1}, "reset": 0.02, "partial": 0.01, "burst": {"probability": 0.01, "length": 5, "status": 503}}}}
+ *
+ *  latency - the delay before the request is forwarded: 'fixed' (ms), 'uniform' (min, max), 'exponential' (mean)
+ *  or 'lognormal' (median, sigma), all in milliseconds; 'probability' is the share of the delayed requests, 1 by
+ *  default;
+ *  reset - the share of the requests whose connection is reset before they're forwarded;
+ *  partial - the share of the requests which are forwarded, but only a half of the response body is sent before
+ *  the connection is closed;
+ *  burst - the chance of every request to start a burst of 'length' responses with the 'status' (503 by default)
+ *  which aren't forwarded at all.
+ *
+ *  seed - repeats the same faults: the N-th request of every entry point gets the same faults, whichever connection
+ *  it comes from; the faults are random if there's no seed.
+ *
+ *  The faults of the '*' entry are used for the entry points without their own. The proxy counts the injected faults
+ *  and the time of the forwarded requests, report() puts them next to the EndpointTimings measured by the client, so
+ *  it's visible how the wall time and the failures of the client degrade with the faults.
+ *
+ *  The proxy speaks plain HTTP/1.1 with keep-alive to the client and forwards the requests to the target with the
+ *  java.net.http client, so any target can be put behind it, including the remote HTTPS service. A malformed
+ *  request is answered with 400 and its connection is closed.
+ */
+public final class FaultProxy {
+
+    public static final String PROPERTY = "triangle.faults";
+
+    private static final String ANY = "*";
+
+    /** The headers which belong to a single connection, the java.net.http client refuses to set some of them */
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade");
+
+    private static final Map<Integer, String> REASONS = Map.of(200, "OK", 400, "Bad Request", 401, "Unauthorized",
+            404, "Not Found", 405, "Method Not Allowed", 422, "Unprocessable Entity", 500, "Internal Server Error",
+            502, "Bad Gateway", 503, "Service Unavailable", 504, "Gateway Timeout");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ServerSocket server;
+
+    private final ExecutorService executor;
+
+    private final HttpClient upstream;
+
+    private final URI target;
+
+    private final Map<String, Faults> faults;
+
+    private final long seed;
+
+    private final Map<String, Stats> stats = new ConcurrentSkipListMap<>();
+
+    private FaultProxy(ServerSocket server, ExecutorService executor, URI target, Map<String, Faults> faults,
+                       long seed) {
+        this.server = server;
+        this.executor = executor;
+        this.target = target;
+        this.faults = faults;
+        this.seed = seed;
+        this.upstream = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(TriangleClient.connectTimeoutMs()))
+                .build();
+    }
+
+    /** This method returns true if the suite was started with -Dtriangle.faults=<file>. */
+    public static boolean isEnabled() {
+        String file = System.getProperty(PROPERTY);
+
+        return file != null && !file.isBlank();
+    }
+
+    /** This method starts the proxy in front of the target with the faults of the 'triangle.faults' file.
+     *
+     * @param targetUri - base URI of the service the requests are forwarded to
+     * @return - running proxy
+     */
+    public static FaultProxy start(String targetUri) {
+        return start(targetUri, System.getProperty(PROPERTY));
+    }
+
+    /** This method starts the proxy in front of the target with the faults of the specified file.
+     *
+     * @param targetUri - base URI of the service the requests are forwarded to
+     * @param file - path of the JSON file or the name of a classpath resource, e.g. 'faults.json'
+     * @return - running proxy
+     */
+    public static FaultProxy start(String targetUri, String file) {
+        JsonNode config;
+
+        try (InputStream input = Files.exists(Paths.get(file))
+                ? Files.newInputStream(Paths.get(file))
+                : FaultProxy.class.getResourceAsStream("/" + file)) {
+
+            if (input == null) {
+                throw new IllegalStateException("The faults file " + file + " doesn't exist");
+            }
+            config = MAPPER.readTree(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the faults of " + file, e);
+        }
+        Map<String, Faults> faults = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> endpoints = config.path("endpoints").fields();
+
+        while (endpoints.hasNext()) {
+            Map.Entry<String, JsonNode> endpoint = endpoints.next();
+            faults.put(endpoint.getKey(), Faults.of(endpoint.getKey(), endpoint.getValue()));
+        }
+        JsonNode seed = config.get("seed");
+
+        return start(targetUri, faults, seed == null ? new Random().nextLong() : seed.asLong());
+    }
+
+    /** This method starts the proxy on a free loopback port.
+     *
+     * @param targetUri - base URI of the service the requests are forwarded to
+     * @param faults - faults of every entry point, e.g. 'GET /triangle/all', or '*' for the rest of them
+     * @param seed - seed of the faults, the same seed repeats the same faults of every entry point
+     * @return - running proxy
+     */
+    static FaultProxy start(String targetUri, Map<String, Faults> faults, long seed) {
+        ServerSocket server;
+        try {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the fault proxy", e);
+        }
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "triangle-fault-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        FaultProxy proxy = new FaultProxy(server, executor, URI.create(targetUri), Map.copyOf(faults), seed);
+
+        executor.execute(proxy::accept);
+
+        return proxy;
+    }
+
+    /** This method returns the base URI of the proxy, e.g. http://127.0.0.1:54321/ */
+    public String baseUri() {
+        return "http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/";
+    }
+
+    /** This method stops the proxy and closes all its connections. */
+    public void stop() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // let's stop the connections anyway
+        }
+        executor.shutdownNow();
+    }
+
+    /** This method returns the injected faults of every entry point next to the time of the forwarded requests and
+     *  the time and failures seen by the client, e.g. {endpoint=GET /triangle/all, requests=120, delayed=118,
+     *  resets=2, partials=1, bursts=5, upstreamErrors=0, upstreamP50=1.2, upstreamP99=9.8, clientP50=180.5,
+     *  clientP99=1450.2, clientFailures=8}. The latencies are in milliseconds; the client failures are the requests
+     *  which ended without a response or with a 5xx status.
+     *
+     * @return - list of entry points, ordered by the entry point
+     */
+    public List<Map<String, Object>> report() {
+        Map<String, Long> failures = new LinkedHashMap<>();
+
+        for (Map<String, Object> row : EndpointTimings.summary()) {
+            int status = (Integer) row.get("status");
+            if (status == 0 || status >= 500) {
+                failures.merge((String) row.get("endpoint"), (Long) row.get("count"), Long::sum);
+            }
+        }
+        List<Map<String, Object>> report = new ArrayList<>();
+
+        stats.forEach((endpoint, stat) -> {
+            Histogram upstreamTime = stat.upstream.copy();
+            Histogram clientTime = EndpointTimings.histogram(endpoint);
+            Map<String, Object> row = new LinkedHashMap<>();
+
+            row.put("endpoint", endpoint);
+            row.put("requests", stat.requests.get());
+            row.put("delayed", stat.delayed.get());
+            row.put("resets", stat.resets.get());
+            row.put("partials", stat.partials.get());
+            row.put("bursts", stat.bursts.get());
+            row.put("upstreamErrors", stat.upstreamErrors.get());
+            row.put("upstreamP50", upstreamTime.getValueAtPercentile(50) / 1000.0);
+            row.put("upstreamP99", upstreamTime.getValueAtPercentile(99) / 1000.0);
+            row.put("clientP50", clientTime == null ? null : clientTime.getValueAtPercentile(50) / 1000.0);
+            row.put("clientP99", clientTime == null ? null : clientTime.getValueAtPercentile(99) / 1000.0);
+            row.put("clientFailures", failures.getOrDefault(endpoint, 0L));
+            report.add(row);
+        });
+        return report;
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // the proxy is stopped
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             InputStream input = new BufferedInputStream(socket.getInputStream());
+             OutputStream output = new BufferedOutputStream(socket.getOutputStream())) {
+
+            socket.setTcpNoDelay(true);
+            Request request;
+
+            while ((request = read(input, output)) != null && exchange(socket, request, output)) {
+                output.flush();
+            }
+            output.flush();
+        } catch (IOException e) {
+            // the client closed the connection or the proxy reset it on purpose
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** This method reads the next request of the connection. A malformed request, e.g. a header without a colon or a
+     *  Content-Length which isn't a number, is answered with 400 and ends the connection, since the rest of the
+     *  connection can't be parsed.
+     *
+     * @return - the request, null if there are no more requests to serve
+     */
+    private static Request read(InputStream input, OutputStream output) throws IOException {
+        try {
+            return Request.read(input);
+        } catch (ProtocolException e) {
+            writeHead(output, 400, Map.of(), 0, false);
+            return null;
+        }
+    }
+
+    /** This method forwards the request with the faults of its entry point.
+     *
+     * @return - true if the connection may be used for the next request
+     */
+    private boolean exchange(Socket socket, Request request, OutputStream output)
+            throws IOException, InterruptedException {
+        String endpoint = Endpoint.of(request.method, request.target).toString();
+        Faults faults = this.faults.getOrDefault(endpoint, this.faults.getOrDefault(ANY, Faults.NONE));
+        Stats stat = stats.computeIfAbsent(endpoint, key -> new Stats());
+        boolean keepAlive = !"close".equalsIgnoreCase(request.header("Connection"));
+
+        // the connections are served by many threads, so every request has a random of its own: the N-th request of
+        // an entry point gets the same faults whichever thread serves it
+        Random random = random(endpoint, stat.requests.incrementAndGet());
+
+        long delay = faults.delay(random);
+        if (delay > 0) {
+            stat.delayed.incrementAndGet();
+            Thread.sleep(delay);
+        }
+        if (faults.burst(stat.burstLeft, random)) {
+            stat.bursts.incrementAndGet();
+            respond(output, request, faults.burstStatus, error(faults.burstStatus, request.target), keepAlive);
+
+            return keepAlive;
+        }
+        if (chance(random, faults.reset)) {
+            stat.resets.incrementAndGet();
+            // the linger of 0 makes close() send RST instead of FIN
+            socket.setSoLinger(true, 0);
+
+            return false;
+        }
+        HttpResponse<byte[]> response;
+        long start = System.nanoTime();
+        try {
+            response = upstream.send(forward(request), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            stat.upstreamErrors.incrementAndGet();
+            respond(output, request, 502, error(502, request.target), keepAlive);
+
+            return keepAlive;
+        }
+        stat.upstream.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+
+        if (chance(random, faults.partial)) {
+            stat.partials.incrementAndGet();
+            writeHead(output, response.statusCode(), response.headers().map(), response.body().length, false);
+            output.write(response.body(), 0, response.body().length / 2);
+            output.flush();
+
+            return false;
+        }
+        writeHead(output, response.statusCode(), response.headers().map(), response.body().length, keepAlive);
+        if (!request.method.equals("HEAD")) {
+            output.write(response.body());
+        }
+        return keepAlive;
+    }
+
+    private HttpRequest forward(Request request) {
+        String path = request.target.startsWith("/") ? request.target.substring(1) : request.target;
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target.resolve(path))
+                .timeout(Duration.ofMillis(TriangleClient.socketTimeoutMs()))
+                .method(request.method, request.body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(request.body));
+
+        for (String[] header : request.headers) {
+            if (HOP_BY_HOP.contains(header[0].toLowerCase())) {
+                continue;
+            }
+            try {
+                builder.header(header[0], header[1]);
+            } catch (IllegalArgumentException e) {
+                // the header is restricted by the client of this Java version, e.g. 'Date' of Java 11
+            }
+        }
+        return builder.build();
+    }
+
+    /** This method returns the source of the faults of the request.
+     *
+     * @param endpoint - entry point of the request
+     * @param sequence - number of the request among the requests of the entry point, starting from 1
+     */
+    private Random random(String endpoint, long sequence) {
+        // the seeds of the requests are close to each other, so they're mixed before they're given to the Random
+        return new Random(new SplittableRandom(seed + 31L * endpoint.hashCode() + sequence).nextLong());
+    }
+
+    private static boolean chance(Random random, double probability) {
+        return probability > 0 && random.nextDouble() < probability;
+    }
+
+    private static byte[] error(int status, String path) {
+        ObjectNode error = MAPPER.createObjectNode()
+                .put("timestamp", Instant.now().toString())
+                .put("status", status)
+                .put("error", REASONS.getOrDefault(status, "Error"))
+                .put("message", "Injected by the fault proxy")
+                .put("path", path);
+
+        return error.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(OutputStream output, Request request, int status, byte[] body, boolean keepAlive)
+            throws IOException {
+        writeHead(output, status, Map.of("Content-Type", List.of("application/json")), body.length, keepAlive);
+        if (!request.method.equals("HEAD")) {
+            output.write(body);
+        }
+    }
+
+    private static void writeHead(OutputStream output, int status, Map<String, List<String>> headers, int length,
+                                  boolean keepAlive) throws IOException {
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ')
+                .append(REASONS.getOrDefault(status, "Status")).append("\r\n");
+
+        headers.forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase()) && !name.startsWith(":")) {
+                values.forEach(value -> head.append(name).append(": ").append(value).append("\r\n"));
+            }
+        });
+        head.append("Content-Length: ").append(length).append("\r\n");
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+        }
+        output.write(head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /** The faults of an entry point */
+    static final class Faults {
+
+        static final Faults NONE = new Faults(null, 0, 0, 0, 0, 503);
+
+        private final Delay latency;
+
+        private final double reset;
+
+        private final double partial;
+
+        private final double burstProbability;
+
+        private final int burstLength;
+
+        private final int burstStatus;
+
+        Faults(Delay latency, double reset, double partial, double burstProbability, int burstLength,
+               int burstStatus) {
+            this.latency = latency;
+            this.reset = reset;
+            this.partial = partial;
+            this.burstProbability = burstProbability;
+            this.burstLength = burstLength;
+            this.burstStatus = burstStatus;
+        }
+
+        private static Faults of(String endpoint, JsonNode node) {
+            node.fieldNames().forEachRemaining(name -> {
+                if (!Set.of("latency", "reset", "partial", "burst").contains(name)) {
+                    throw new IllegalStateException("Unexpected fault '" + name + "' of " + endpoint
+                            + ", expected 'latency', 'reset', 'partial' or 'burst'");
+                }
+            });
+            JsonNode burst = node.path("burst");
+
+            return new Faults(node.has("latency") ? Delay.of(endpoint, node.get("latency")) : null,
+                    node.path("reset").asDouble(0),
+                    node.path("partial").asDouble(0),
+                    burst.path("probability").asDouble(0),
+                    burst.path("length").asInt(1),
+                    burst.path("status").asInt(503));
+        }
+
+        long delay(Random random) {
+            return latency == null ? 0 : latency.millis(random);
+        }
+
+        /** This method returns true if the request belongs to a burst, either a running one or a new one.
+         *
+         * @param left - the number of responses left of the running burst of the entry point
+         */
+        boolean burst(AtomicInteger left, Random random) {
+            if (burstProbability <= 0) {
+                return false;
+            }
+            if (left.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                return true;
+            }
+            if (random.nextDouble() < burstProbability) {
+                left.set(burstLength - 1);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** A distribution of the delays, in milliseconds */
+    static final class Delay {
+
+        private final String distribution;
+
+        private final double first;
+
+        private final double second;
+
+        private final double probability;
+
+        Delay(String distribution, double first, double second, double probability) {
+            this.distribution = distribution;
+            this.first = first;
+            this.second = second;
+            this.probability = probability;
+        }
+
+        private static Delay of(String endpoint, JsonNode node) {
+            String distribution = node.path("distribution").asText("fixed");
+            double probability = node.path("probability").asDouble(1);
+
+            switch (distribution) {
+                case "fixed":
+                    return new Delay(distribution, node.path("ms").asDouble(), 0, probability);
+                case "uniform":
+                    return new Delay(distribution, node.path("min").asDouble(), node.path("max").asDouble(),
+                            probability);
+                case "exponential":
+                    return new Delay(distribution, node.path("mean").asDouble(), 0, probability);
+                case "lognormal":
+                    return new Delay(distribution, node.path("median").asDouble(), node.path("sigma").asDouble(1),
+                            probability);
+                default:
+                    throw new IllegalStateException("Unexpected latency distribution '" + distribution + "' of "
+                            + endpoint + ", expected 'fixed', 'uniform', 'exponential' or 'lognormal'");
+            }
+        }
+
+        long millis(Random random) {
+            if (probability < 1 && random.nextDouble() >= probability) {
+                return 0;
+            }
+            switch (distribution) {
+                case "uniform":
+                    return Math.round(first + (second - first) * random.nextDouble());
+                case "exponential":
+                    return Math.round(-first * Math.log(1 - random.nextDouble()));
+                case "lognormal":
+                    return Math.round(first * Math.exp(second * random.nextGaussian()));
+                default:
+                    return Math.round(first);
+            }
+        }
+    }
+
+    /** The injected faults and the forwarded requests of an entry point */
+    private static final class Stats {
+
+        private final AtomicLong requests = new AtomicLong();
+
+        private final AtomicLong delayed = new AtomicLong();
+
+        private final AtomicLong resets = new AtomicLong();
+
+        private final AtomicLong partials = new AtomicLong();
+
+        private final AtomicLong bursts = new AtomicLong();
+
+        private final AtomicLong upstreamErrors = new AtomicLong();
+
+        private final AtomicInteger burstLeft = new AtomicInteger();
+
+        private final Histogram upstream = new ConcurrentHistogram(3);
+    }
+
+    /** A request read from the client */
+    private static final class Request {
+
+        private final String method;
+
+        private final String target;
+
+        private final List<String[]> headers;
+
+        private final byte[] body;
+
+        private Request(String method, String target, List<String[]> headers, byte[] body) {
+            this.method = method;
+            this.target = target;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /** This method reads the next request of the connection.
+         *
+         * @return - the request, null if the client closed the connection
+         * @throws ProtocolException - if the request is malformed
+         */
+        private static Request read(InputStream input) throws IOException {
+            String line = line(input);
+            // let's tolerate the empty lines between the requests
+            while (line != null && line.isEmpty()) {
+                line = line(input);
+            }
+            if (line == null) {
+                return null;
+            }
+            String[] requestLine = line.split(" ");
+            if (requestLine.length != 3) {
+                throw new ProtocolException("Unexpected request line: " + line);
+            }
+            List<String[]> headers = new ArrayList<>();
+            for (String header = line(input); header != null && !header.isEmpty(); header = line(input)) {
+                int colon = header.indexOf(':');
+                if (colon < 0) {
+                    throw new ProtocolException("Unexpected header: " + header);
+                }
+                headers.add(new String[]{header.substring(0, colon).trim(), header.substring(colon + 1).trim()});
+            }
+            Request head = new Request(requestLine[0], requestLine[1], headers, new byte[0]);
+            byte[] body;
+
+            if ("chunked".equalsIgnoreCase(head.header("Transfer-Encoding"))) {
+                body = chunked(input);
+            } else {
+                String length = head.header("Content-Length");
+                body = length == null ? new byte[0] : input.readNBytes(length(length, 10));
+            }
+            return new Request(head.method, head.target, headers, body);
+        }
+
+        private String header(String name) {
+            for (String[] header : headers) {
+                if (header[0].equalsIgnoreCase(name)) {
+                    return header[1];
+                }
+            }
+            return null;
+        }
+
+        private static byte[] chunked(InputStream input) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+            for (String size = line(input); size != null; size = line(input)) {
+                int length = length(size.split(";")[0].trim(), 16);
+                if (length == 0) {
+                    // let's skip the trailers
+                    String trailer = line(input);
+                    while (trailer != null && !trailer.isEmpty()) {
+                        trailer = line(input);
+                    }
+                    break;
+                }
+                body.write(input.readNBytes(length));
+                line(input);
+            }
+            return body.toByteArray();
+        }
+
+        /** This method parses the length of a body or of a chunk.
+         *
+         * @param value - Content-Length value or the size of a chunk
+         * @param radix - 10 for Content-Length, 16 for a chunk
+         * @throws ProtocolException - if the value isn't a non-negative number
+         */
+        private static int length(String value, int radix) throws ProtocolException {
+            try {
+                int length = Integer.parseInt(value, radix);
+                if (length >= 0) {
+                    return length;
+                }
+            } catch (NumberFormatException e) {
+                // the value is reported below
+            }
+            throw new ProtocolException("Unexpected length: " + value);
+        }
+
+        private static String line(InputStream input) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+            for (int next = input.read(); next != '\n'; next = input.read()) {
+                if (next < 0) {
+                    return line.size() == 0 ? null : line.toString(StandardCharsets.ISO_8859_1);
+                }
+                if (next != '\r') {
+                    line.write(next);
+                }
+            }
+            return line.toString(StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package triangle_api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static triangle_api.Helpers.*;
+
+/** This class keeps triangles of known characteristics alive across the tests of each personal token, so a test
+ *  which only needs "some existing triangle" doesn't have to clean up the triangles and create a new one.
+ *  A fixture is described by the strategy (VALID_VALUES, EQUILATERAL_VALUES or ISOSCELES_VALUES) and the bound of
+ *  its sides, i.e. the scale bucket, the sides are integers as with the '#' pattern.
+ *
+ *  Read-only tests take a fixture with lease() and must not modify or delete it. Destructive tests take it with
+ *  consume(), so it's removed from the pool and only that one is created again by the next lease(). A fixture which
+ *  was deleted by anything else, e.g. by a test which deletes all triangles, is noticed by the Inventory and
+ *  created again as well.
+ */
+public final class Fixtures {
+
+    private static final Map<String, Fixtures> FIXTURES = new ConcurrentHashMap<>();
+
+    private final Map<String, Triangle> triangles = new HashMap<>();
+
+    private Fixtures() {
+    }
+
+    /** This method returns the fixtures of the personal token leased to the current thread. */
+    public static Fixtures current() {
+        return FIXTURES.computeIfAbsent(TenantPool.shared().current(), key -> new Fixtures());
+    }
+
+    /** This method returns an existing triangle of the specified kind which the test must not modify or delete,
+     *  the triangle is created only if the pool doesn't have an alive one yet.
+     *
+     * @param strategy - VALID_VALUES, EQUILATERAL_VALUES or ISOSCELES_VALUES
+     * @param bound - the upper bound of the sides, e.g. 10
+     * @return - the triangle with its ID and sides
+     */
+    public synchronized Triangle lease(Strategy strategy, int bound) {
+        String key = key(strategy, bound);
+        Inventory inventory = Inventory.current();
+
+        if (inventory.needsReconcile()) {
+            getAllTriangles();
+        }
+        Triangle triangle = triangles.get(key);
+
+        if (triangle != null && inventory.contains(triangle.id())) {
+            AsyncReporter.log("The fixture " + key + " is reused: " + triangle, true);
+            return triangle;
+        }
+        if (inventory.count() >= Inventory.LIMIT) {
+            // let's make room by deleting a triangle which isn't a fixture
+            for (String id : inventory.ids()) {
+                if (!isFixture(id)) {
+                    deleteOneTriangle(id);
+                    break;
+                }
+            }
+        }
+        double[] sides = genSides(strategy, "#", bound);
+        triangle = new Triangle(createTriangle(sides[0], sides[1], sides[2]), sides[0], sides[1], sides[2]);
+        triangles.put(key, triangle);
+
+        return triangle;
+    }
+
+    /** This method returns an existing triangle of the specified kind which the test may modify or delete, the
+     *  triangle is removed from the pool.
+     *
+     * @param strategy - VALID_VALUES, EQUILATERAL_VALUES or ISOSCELES_VALUES
+     * @param bound - the upper bound of the sides, e.g. 10
+     * @return - the triangle with its ID and sides
+     */
+    public synchronized Triangle consume(Strategy strategy, int bound) {
+        Triangle triangle = lease(strategy, bound);
+        triangles.remove(key(strategy, bound));
+
+        return triangle;
+    }
+
+    /** This method returns the fixtures of the pool by their kind, e.g. to restore them with restore(). */
+    synchronized Map<String, Triangle> snapshot() {
+        return new HashMap<>(triangles);
+    }
+
+    /** This method replaces the fixtures of the pool, e.g. with the ones a replayed test started from. */
+    synchronized void restore(Map<String, Triangle> snapshot) {
+        triangles.clear();
+        triangles.putAll(snapshot);
+    }
+
+    private boolean isFixture(String id) {
+        for (Triangle triangle : triangles.values()) {
+            if (triangle.id().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(Strategy strategy, int bound) {
+        switch (strategy) {
+            case VALID_VALUES:
+            case EQUILATERAL_VALUES:
+            case ISOSCELES_VALUES:
+                return strategy + "/" + bound;
+            default:
+                throw new IllegalArgumentException("Unexpected strategy value: " + strategy
+                        + ", only the strategies of real triangles can be used for the fixtures");
+        }
+    }
+}
@@ -1,136 +1,156 @@
 package triangle_api;
 
-import io.restassured.RestAssured;
-import io.restassured.builder.RequestSpecBuilder;
-import io.restassured.config.EncoderConfig;
-import io.restassured.config.JsonConfig;
-import io.restassured.config.RestAssuredConfig;
-import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
-import io.restassured.path.json.config.JsonPathConfig;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import org.testng.Assert;
-import org.testng.Reporter;
 
-import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static io.restassured.RestAssured.given;
-import static org.hamcrest.CoreMatchers.equalTo;
 
 public class Helpers {
 
+    public static final String ALL_TRIANGLES_TTL_PROPERTY = "triangle.all.ttlMs";
+
+    private static final SingleFlight<String, List<String>> ALL_TRIANGLES =
+            new SingleFlight<>(Long.getLong(ALL_TRIANGLES_TTL_PROPERTY, 0L));
+
+    /** The max number of IDs which are written to the log, the rest are only counted */
+    private static final int LOGGED_IDS = 10;
+
+    /** The generator of the sides of the current thread if they must be repeatable, see seedSides() */
+    private static final ThreadLocal<SplittableRandom> SEEDED_SIDES = new ThreadLocal<>();
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L};
+
     /** This method returns a list of IDs of all existed triangles or an empty list if no any IDs were found.
+     *  The concurrent calls for the same personal token share a single request, unless the triangles were changed
+     *  since it was sent; with -Dtriangle.all.ttlMs=<ms> its result is also reused for the specified time.
      *
      * @return - list of IDs or empty list
      */
     public static List<String> getAllTriangles() {
 
-        RequestSpecification helpersSpec = new RequestSpecBuilder()
-                .addHeader("X-User", "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        String token = TenantPool.shared().current();
+        // the cassette expects every test to send its own requests
+        List<String> listOfIDs = Cassette.isRecord() || Cassette.isReplay()
+                ? requestAllTriangles(token)
+                : ALL_TRIANGLES.get(token, Inventory.of(token).generation(), () -> requestAllTriangles(token));
+
+        AsyncReporter.log(summary(listOfIDs), true);
+
+        return new ArrayList<>(listOfIDs);
+    }
+
+    /** This method returns the counters of the getAllTriangles calls, e.g. {calls=120, loads=80, coalesced=30,
+     *  cached=10}: 'loads' is the number of requests sent, 'coalesced' and 'cached' are the calls which shared the
+     *  request in flight or the result within the TTL.
+     */
+    static Map<String, Long> allTrianglesCounters() {
+        return ALL_TRIANGLES.counters();
+    }
+
+    private static List<String> requestAllTriangles(String token) {
+
+        RequestSpecification helpersSpec = TriangleClient.shared().spec(token);
 
         Response response =
 
                 given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL).spec(helpersSpec)
+                        .spec(helpersSpec)
                         .contentType(ContentType.JSON)
                 .when()
                         .get("/all")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
                         .extract()
                         .response();
 
-        List<String> listOfIDs = response.jsonPath().getList("id");
-        Reporter.log("The following triangle IDs were found: " + listOfIDs, true);
-
-        return listOfIDs;
+        return List.copyOf(AllTrianglesDecoder.ids(AllTrianglesDecoder.body(response)));
     }
 
 
-    /** This method returns an array with side values of the triangle which belongs to the specified ID.
+    /** This method returns the triangle which belongs to the specified ID, a triangle which was already requested
+     *  is taken from the ResourceCache.
      *
-     * @return - array of double with three sides.
+     * @return - the triangle with its ID and three sides.
      */
-    public static double[] getTriangle(String id) {
+    public static Triangle getTriangle(String id) {
 
-        RequestSpecification helpersSpec = new RequestSpecBuilder()
-                .addHeader("X-User", "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        RequestSpecification helpersSpec = TriangleClient.shared().spec();
 
         Response response =
 
                 given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL).spec(helpersSpec)
+                        .spec(helpersSpec)
                         .contentType(ContentType.JSON)
                         .pathParam("triangleID", id)
                 .when()
                         .get("/{triangleID}")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
                         .extract()
                         .response();
 
-        Reporter.log("The following triangle was found with this ID: " + response.asString(), true);
+        Triangle triangle = Triangle.of(response);
+        AsyncReporter.log("The following triangle was found with this ID: " + triangle, true);
 
-        return new double[]{response.path("firstSide"),
-                response.path("secondSide"),
-                response.path("thirdSide")};
+        return triangle;
     }
 
 
-    /** This method deletes each triangle which ID is present in the provided list.
+    /** This method deletes each triangle which ID is present in the provided list. The DELETE requests are sent
+     *  concurrently, then a single request to /all verifies that none of the IDs is present anymore, and all the IDs
+     *  which failed to be deleted are reported together.
      *
      * @param listOfIDs - a list with triangles IDs
      */
     public static void deleteAllTriangles(List<String> listOfIDs ) {
 
-        RequestSpecification helpersSpec = new RequestSpecBuilder()
-                .addHeader("X-User", "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        RequestSpecification helpersSpec = TriangleClient.shared().spec();
 
         if (!listOfIDs.isEmpty()) {
-            for (String id : listOfIDs) {
+            Map<String, Throwable> failedRequests = Bulk.forEach(listOfIDs, id ->
 
                 given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                         .spec(helpersSpec)
                         .contentType(ContentType.JSON)
                         .pathParam("triangleID", id)
                 .when()
                         .delete("/{triangleID}")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
-                        .statusCode(200);
+                        .statusCode(200));
 
-                Assert.assertFalse(getAllTriangles().contains(id));
+            Set<String> existedIDs = new HashSet<>(getAllTriangles());
+            List<String> leftIDs = new ArrayList<>();
 
-                Reporter.log("The triangle with ID "+id+" was deleted.", true);
+            for (String id : listOfIDs) {
+                if (existedIDs.contains(id)) {
+                    leftIDs.add(id);
+                }
             }
+            Assert.assertTrue(failedRequests.isEmpty() && leftIDs.isEmpty(),
+                    "Not all triangles were deleted. Failed requests: " + failedRequests.keySet()
+                            + ", still present: " + leftIDs + ". " + failedRequests.values());
+
+            AsyncReporter.log("The triangles with IDs "+listOfIDs+" were deleted.", true);
         } else {
-            Reporter.log("The specified list of IDs is empty, please provide a list with valid IDs", true);
+            AsyncReporter.log("The specified list of IDs is empty, please provide a list with valid IDs", true);
             throw new IllegalArgumentException();
         }
     }
@@ -142,33 +162,26 @@ public class Helpers {
      */
     public static void deleteOneTriangle(String id) {
 
-        RequestSpecification helpersSpec = new RequestSpecBuilder()
-                .addHeader("X-User", "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        RequestSpecification helpersSpec = TriangleClient.shared().spec();
 
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(helpersSpec)
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .delete("/{triangleID}")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(200);
 
         Assert.assertFalse(getAllTriangles().contains(id));
 
-        Reporter.log("The triangle with ID "+id+" was deleted.", true);
+        AsyncReporter.log("The triangle with ID "+id+" was deleted.", true);
     }
 
     /** This method creates a new triangle if specified sides are valid for a real triangle,
-     *  and returns the ID of the created triangle.
+     *  and returns the ID of the created triangle. The number of existed triangles is taken from the Inventory,
+     *  so the list of all triangles is requested only if the inventory needs to be reconciled.
      *
      * @param firstSide - a first side of the triangle
      * @param secondSide - a second side of the triangle
@@ -177,24 +190,16 @@ public class Helpers {
      */
     public static String createTriangle(double firstSide, double secondSide, double thirdSide) {
 
-        Assert.assertTrue(getAllTriangles().size() < 10,
-                "The service allows only 10 triangles and all 10 are already present. " +
-                        "Please delete some triangle to add a new one.");
-
-        RequestSpecification helpersSpec = new RequestSpecBuilder()
-                .addHeader("X-User", "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        Inventory inventory = Inventory.current();
+        if (inventory.needsReconcile()) {
+            getAllTriangles();
+        }
 
-        JsonConfig jsonConfig = JsonConfig.jsonConfig()
-                .numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE);
+        Assert.assertTrue(inventory.count() < Inventory.LIMIT,
+                "The service allows only " + Inventory.LIMIT + " triangles and all of them are already present. " +
+                        "Please delete some triangle to add a new one.");
 
-        RestAssuredConfig helperConfig = RestAssured.config()
-                .jsonConfig(jsonConfig)
-                .encoderConfig(EncoderConfig
-                        .encoderConfig()
-                        .defaultContentCharset("UTF-8"));
+        RequestSpecification helpersSpec = TriangleClient.shared().spec();
 
         boolean sidesPositive = firstSide > 0
                 && secondSide > 0
@@ -206,41 +211,37 @@ public class Helpers {
 
         if (sidesPositive && sidesValid) {
 
-            String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
+            String payload = payload(firstSide, secondSide, thirdSide);
 
             Response response =
 
                     given()
-                            .log()
-                            .ifValidationFails(LogDetail.ALL)
                             .contentType(ContentType.JSON)
                             .spec(helpersSpec)
-                            .config(helperConfig)
                             .body(payload)
                     .when()
                             .post("/")
                     .then()
-                            .log()
-                            .ifValidationFails(LogDetail.ALL)
                     .assertThat()
                             .statusCode(200)
                             .contentType(ContentType.JSON)
-                            .body("firstSide", equalTo(Double.valueOf(firstSide)),
-                                    "secondSide", equalTo(Double.valueOf(secondSide)),
-                                    "thirdSide", equalTo(Double.valueOf(thirdSide)) )
                             .extract()
                             .response();
 
-            String id = response.path("id");
-            Reporter.log("The triangle with sides "+firstSide+", "+secondSide+", and "+thirdSide+" was" +
+            Triangle triangle = Triangle.of(response);
+            Assert.assertTrue(triangle.hasSides(firstSide, secondSide, thirdSide),
+                    "The sides of the created triangle are different from the specified ones: " + triangle);
+
+            String id = triangle.id();
+            AsyncReporter.log("The triangle with sides "+firstSide+", "+secondSide+", and "+thirdSide+" was" +
                     " successfully created, its ID is: " +id, true);
 
             return id;
 
         } else if (!sidesPositive) {
-            Reporter.log("At least one of the specified sides is < 0, all of them must be > 0 ", true);
+            AsyncReporter.log("At least one of the specified sides is < 0, all of them must be > 0 ", true);
         } else {
-            Reporter.log("The specified sides lengths are not valid for a triangle, they must follow the criteria: " +
+            AsyncReporter.log("The specified sides lengths are not valid for a triangle, they must follow the criteria: " +
                     "\n(firstSide + secondSide) > thirdSide " +
                     "\nAND \n(firstSide + thirdSide) > secondSide " +
                     "\nAND \n(secondSide + thirdSide) > firstSide.", true);
@@ -248,6 +249,58 @@ public class Helpers {
         throw new IllegalArgumentException();
     }
 
+    /** This method creates a triangle for each specified sides at once, i.e. all POST requests are in flight at the
+     *  same time, verifies that every triangle was created with its sides and returns the IDs of the created
+     *  triangles in the same order as the sides.
+     *
+     * @param listOfSides - a list of sides, each of them as an array of the first, second and third side
+     * @return the IDs of created triangles
+     */
+    public static List<String> createTriangles(List<double[]> listOfSides) {
+
+        Inventory inventory = Inventory.current();
+        if (inventory.needsReconcile()) {
+            getAllTriangles();
+        }
+
+        Assert.assertTrue(inventory.count() + listOfSides.size() <= Inventory.LIMIT,
+                "The service allows only " + Inventory.LIMIT + " triangles and " + inventory.count() +
+                        " are already present. Please delete some triangles to add " + listOfSides.size() +
+                        " new ones.");
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        for (double[] sides : listOfSides) {
+            futures.add(TriangleAsyncClient.shared().createTriangle(sides[0], sides[1], sides[2]));
+        }
+        List<String> listOfIDs = new ArrayList<>();
+        List<Throwable> failedRequests = new ArrayList<>();
+
+        for (CompletableFuture<String> future : futures) {
+            try {
+                listOfIDs.add(future.join());
+            } catch (CompletionException e) {
+                failedRequests.add(e.getCause());
+            }
+        }
+        Assert.assertTrue(failedRequests.isEmpty(), "Not all triangles were created: " + failedRequests);
+
+        AsyncReporter.log("The triangles with IDs " + listOfIDs + " were successfully created.", true);
+
+        return listOfIDs;
+    }
+
+    /** This method returns the payload for the POST /triangle with the specified sides and ';' as the separator.
+     *
+     * @param firstSide - a first side of the triangle
+     * @param secondSide - a second side of the triangle
+     * @param thirdSide - a third side of the triangle
+     * @return the payload, e.g. {"separator": ";", "input": "3.0;4.0;5.0"}
+     */
+    public static String payload(double firstSide, double secondSide, double thirdSide) {
+        return "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
+    }
+
     /** This enum defines values for the strategy argument of the genSides method*/
     public enum Strategy {
         VALID_VALUES,
@@ -264,6 +317,17 @@ public class Helpers {
      *  VALID_VALUES - where the sum of some two value is greater than the third one;
      *  EQUILATERAL_VALUES - where all the sides are equal;
      *  ISOSCELES_VALUES - where any two of the sides are equal;
+     *  WITH_ZERO_VALUES - valid values where one of the sides is replaced with zero.
+     *
+     *  The values are built rather than drawn until they fit the strategy: two sides are drawn and the third one is
+     *  derived from them, so every call takes a constant number of random draws. All the values are generated as
+     *  integers of 1/scale units, e.g. hundredths for '#.##', and are > 0 unless the bound is too small for
+     *  INVALID_VALUES and SUM_VALUES without a zero side. The derived side is put at a random position.
+     *
+     *  The drawn sides are uniform over the units from 1/scale to the bound, the derived side is uniform over the
+     *  units the strategy allows for it. Unlike the values rounded from a random double, a side is never rounded down
+     *  to zero or has half the chance at the ends of the range, and the triangles aren't uniform over all the valid
+     *  ones, e.g. a VALID_VALUES triangle with two long sides gets its third side from a wider range.
      *
      * @param strategy - one of the values described above;
      * @param pattern - # - no digits after comma (will be shown as number.0 since it's double),
@@ -274,103 +338,108 @@ public class Helpers {
      * @return array of double with three values.
      */
     public static double[] genSides(Strategy strategy, String pattern, int bound) {
-        double firstSide, secondSide, thirdSide;
+        SplittableRandom seeded = SEEDED_SIDES.get();
+        long scale = scaleOf(pattern);
+        // the max value of a side in 1/scale units
+        long max = bound * scale;
+        long firstSide, secondSide, thirdSide, min;
 
         switch (strategy) {
             case INVALID_VALUES:
-                do {
-                    firstSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    secondSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    thirdSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-
-                } while (!(firstSide + secondSide < thirdSide
-                        || firstSide + thirdSide < secondSide
-                        || secondSide + thirdSide < firstSide));
+                min = max >= 3 ? 1 : 0;
+                thirdSide = nextLong(seeded, 2 * min + 1, max + 1);
+                firstSide = nextLong(seeded, min, thirdSide - min);
+                secondSide = nextLong(seeded, min, thirdSide - firstSide);
                 break;
 
             case SUM_VALUES:
-                do {
-                    firstSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    secondSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    thirdSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-
-                } while (!(firstSide + secondSide == thirdSide
-                        || firstSide + thirdSide == secondSide
-                        || secondSide + thirdSide == firstSide));
+                min = max >= 2 ? 1 : 0;
+                thirdSide = nextLong(seeded, Math.max(2 * min, 1), max + 1);
+                firstSide = nextLong(seeded, min, thirdSide - min + 1);
+                secondSide = thirdSide - firstSide;
+                // e.g. 0.1 + 0.2 != 0.3 in doubles, while doubling is always exact
+                if ((double) firstSide / scale + (double) secondSide / scale != (double) thirdSide / scale) {
+                    firstSide = nextLong(seeded, 1, max / 2 + 1);
+                    secondSide = firstSide;
+                    thirdSide = firstSide * 2;
+                }
                 break;
 
             case VALID_VALUES:
-                do {
-                    firstSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    secondSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    thirdSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-
-                } while (!(firstSide + secondSide > thirdSide
-                        && firstSide + thirdSide > secondSide
-                        && secondSide + thirdSide > firstSide));
+            case WITH_ZERO_VALUES:
+                firstSide = nextLong(seeded, 1, max + 1);
+                secondSide = nextLong(seeded, 1, max + 1);
+                thirdSide = nextLong(seeded, Math.abs(firstSide - secondSide) + 1,
+                        Math.min(firstSide + secondSide - 1, max) + 1);
                 break;
 
             case EQUILATERAL_VALUES:
-                firstSide = Double
-                        .parseDouble(new DecimalFormat(pattern)
-                                .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                .replace(",","."));
+                firstSide = nextLong(seeded, 1, max + 1);
                 secondSide = firstSide;
                 thirdSide = firstSide;
                 break;
+
             case ISOSCELES_VALUES:
-                do {
-                    firstSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    secondSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-                    thirdSide = Double
-                            .parseDouble(new DecimalFormat(pattern)
-                                    .format(ThreadLocalRandom.current().nextDouble(0.01,bound))
-                                    .replace(",","."));
-
-                } while (!(firstSide == secondSide && firstSide *2 > thirdSide
-                        || firstSide == thirdSide && thirdSide *2 > secondSide
-                        || secondSide == thirdSide && secondSide *2 > firstSide));
+                firstSide = nextLong(seeded, 1, max + 1);
+                secondSide = firstSide;
+                thirdSide = nextLong(seeded, 1, Math.min(firstSide * 2 - 1, max) + 1);
                 break;
 
             default:
                 throw new IllegalStateException("Unexpected strategy value: " + strategy);
         }
-        return new double[]{firstSide, secondSide, thirdSide};
+        double[] sides = new double[3];
+        int position = (int) nextLong(seeded, 0, 3);
+
+        sides[position] = (double) thirdSide / scale;
+        sides[(position + 1) % 3] = (double) firstSide / scale;
+        sides[(position + 2) % 3] = (double) secondSide / scale;
+
+        if (strategy == Strategy.WITH_ZERO_VALUES) {
+            sides[(int) nextLong(seeded, 0, 3)] = 0;
+        }
+        return sides;
     }
 
 
+    /** This method describes the found IDs for the log, only the first ones are listed if there are many of them. */
+    private static String summary(List<String> listOfIDs) {
+        if (listOfIDs.size() <= LOGGED_IDS) {
+            return "The following triangle IDs were found: " + listOfIDs;
+        }
+        return listOfIDs.size() + " triangle IDs were found, the first " + LOGGED_IDS + " of them: "
+                + listOfIDs.subList(0, LOGGED_IDS);
+    }
 
+    /** This method makes the sides generated on the current thread repeatable: the same seed gives the same sides in
+     *  the same order, e.g. while a Cassette is recorded or replayed.
+     *
+     * @param seed - seed of the sides, e.g. the test which generates them, null to generate random sides again
+     */
+    static void seedSides(String seed) {
+        if (seed == null) {
+            SEEDED_SIDES.remove();
+        } else {
+            SEEDED_SIDES.set(new SplittableRandom(seed.hashCode()));
+        }
+    }
+
+    /** This method returns a random value between the origin (inclusive) and the bound (exclusive). */
+    private static long nextLong(SplittableRandom seeded, long origin, long bound) {
+        return seeded != null ? seeded.nextLong(origin, bound) : ThreadLocalRandom.current().nextLong(origin, bound);
+    }
+
+    /** This method returns the scale of the pattern, i.e. 10 to the power of the number of digits after the comma:
+     *  '#' - 1, '#.#' - 10, '#.##' - 100 and so on.
+     */
+    private static long scaleOf(String pattern) {
+        int dot = pattern.indexOf('.');
+        int digits = dot < 0 ? 0 : pattern.length() - dot - 1;
+
+        if (digits >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unexpected pattern value: " + pattern
+                    + ", up to " + (POWERS_OF_TEN.length - 1) + " digits after the comma are supported");
+        }
+        return POWERS_OF_TEN[digits];
+    }
 }
@@ -0,0 +1,175 @@
+package triangle_api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/** This class keeps track of the triangles of each personal token on the client side, so the helpers know how many
+ *  triangles exist without asking the service. The inventory is updated by the hook() from every successful
+ *  POST /triangle, DELETE /triangle/{id} and GET /triangle/all response of both clients, including the requests
+ *  sent by the tests themselves.
+ *
+ *  The inventory has to be reconciled with GET /triangle/all when it's unknown yet, when a response contradicts it
+ *  (e.g. the service rejects a triangle though the inventory isn't full) or when the interval of the
+ *  'triangle.inventory.reconcileMs' system property (30000 by default) has passed since the last reconciliation.
+ */
+public final class Inventory {
+
+    public static final String RECONCILE_PROPERTY = "triangle.inventory.reconcileMs";
+
+    /** The number of triangles the target allows per personal token */
+    public static final int LIMIT = Target.quota();
+
+    private static final long RECONCILE_INTERVAL_NANOS = Long.getLong(RECONCILE_PROPERTY, 30_000L) * 1_000_000L;
+
+    private static final Map<String, Inventory> INVENTORIES = new ConcurrentHashMap<>();
+
+    private static final ExchangeHook HOOK = Inventory::track;
+
+    private final Set<String> ids = new LinkedHashSet<>();
+
+    private boolean stale = true;
+
+    private long generation;
+
+    private long reconciledAt;
+
+    private Inventory() {
+    }
+
+    /** This method returns the inventory of the specified personal token.
+     *
+     * @param token - 'X-User' value
+     * @return - inventory of the token
+     */
+    public static Inventory of(String token) {
+        return INVENTORIES.computeIfAbsent(token, key -> new Inventory());
+    }
+
+    /** This method returns the inventory of the personal token leased to the current thread. */
+    public static Inventory current() {
+        return of(TenantPool.shared().current());
+    }
+
+    /** This method returns the hook which keeps the inventories up to date, it's one of the ExchangeHooks of every
+     *  request.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method returns the number of triangles known to exist, without any request to the service. */
+    public synchronized int count() {
+        return ids.size();
+    }
+
+    /** This method returns the IDs of the triangles known to exist, without any request to the service. */
+    public synchronized List<String> ids() {
+        return new ArrayList<>(ids);
+    }
+
+    /** This method returns true if the triangle of the specified ID is known to exist. */
+    public synchronized boolean contains(String id) {
+        return ids.contains(id);
+    }
+
+    /** This method returns the number of changes of the triangles seen so far, so a GET /triangle/all which was sent
+     *  before a change can be told apart.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /** This method returns true if the inventory should be reconciled with GET /triangle/all before it's trusted.
+     *  While a Cassette is used, the interval isn't checked, so the test sends the same requests in both runs.
+     */
+    public synchronized boolean needsReconcile() {
+        return stale || !Cassette.isRecord() && !Cassette.isReplay()
+                && System.nanoTime() - reconciledAt > RECONCILE_INTERVAL_NANOS;
+    }
+
+    /** This method marks the inventory as unreliable, so it's reconciled before the next use. */
+    public synchronized void invalidate() {
+        stale = true;
+        generation++;
+    }
+
+    synchronized void added(String id) {
+        if (ids.size() >= LIMIT) {
+            // the service accepted a triangle which doesn't fit the limit, somebody else deleted triangles
+            stale = true;
+        }
+        ids.add(id);
+        generation++;
+    }
+
+    synchronized void removed(String id) {
+        if (!ids.remove(id)) {
+            stale = true;
+        }
+        generation++;
+    }
+
+    /** This method returns the IDs if the inventory is trusted, null if it needs to be reconciled, see restore(). */
+    synchronized List<String> snapshot() {
+        return needsReconcile() ? null : new ArrayList<>(ids);
+    }
+
+    /** This method brings the inventory back to a snapshot, e.g. the one a replayed test started from.
+     *
+     * @param snapshot - IDs of the triangles, null if the inventory needs to be reconciled
+     */
+    synchronized void restore(List<String> snapshot) {
+        ids.clear();
+        if (snapshot == null) {
+            stale = true;
+        } else {
+            reconciled(snapshot);
+        }
+        generation++;
+    }
+
+    synchronized void reconciled(Collection<String> existedIDs) {
+        ids.clear();
+        ids.addAll(existedIDs);
+        stale = false;
+        reconciledAt = System.nanoTime();
+    }
+
+    private static CompletableFuture<Reply> track(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        String token = exchange.token();
+
+        if (token == null) {
+            return next.get();
+        }
+        return next.get().thenApply(reply -> {
+            Endpoint endpoint = exchange.endpoint();
+            int status = reply.status();
+
+            if (endpoint.is("POST", "/triangle")) {
+                if (status == 200) {
+                    of(token).added(reply.json().path("id").asText(null));
+                } else if (status == 422 && of(token).count() < LIMIT
+                        && !"Cannot process input".equals(reply.json().path("message").asText(null))) {
+                    // the payload is fine, so the service rejected it because of the limit the inventory didn't
+                    // expect
+                    of(token).invalidate();
+                }
+            } else if (endpoint.is("DELETE", "/triangle/{id}") && status == 200) {
+                of(token).removed(endpoint.id());
+            } else if (endpoint.is("GET", "/triangle/all") && status == 200 && !reply.isStreamed()) {
+                // the IDs of a streamed body aren't kept, see TriangleAsyncClient.forEachTriangle
+                List<String> ids = new ArrayList<>();
+                reply.triangles().forEach(triangle -> ids.add(triangle.id()));
+                of(token).reconciled(ids);
+            }
+            return reply;
+        });
+    }
+}
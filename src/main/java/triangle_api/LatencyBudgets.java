@@ -0,0 +1,134 @@
+package triangle_api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** This class holds the latency budgets of the entry points, i.e. the percentiles each entry point must stay within
+ *  over the whole suite, e.g. {"GET /triangle/{id}/area": {"p50": 500, "p99": 2500, "request": 10000}}, all of them
+ *  in milliseconds. The percentiles are written as 'p' and the percentile, 'max' is the slowest request and
+ *  'request' is the budget of every single request.
+ *
+ *  The budgets are read from the file of the 'triangle.latency.budgets' system property or from
+ *  latency-budgets.json of the classpath. The percentiles are checked against the EndpointTimings of all statuses
+ *  at the end of the suite; single requests are checked by the hook() only with -Dtriangle.latency.perRequest=true,
+ *  so a slow request fails its test like time(lessThan(...)) would.
+ */
+public final class LatencyBudgets {
+
+    public static final String FILE_PROPERTY = "triangle.latency.budgets";
+
+    public static final String PER_REQUEST_PROPERTY = "triangle.latency.perRequest";
+
+    private static final String REQUEST = "request";
+
+    private static final ExchangeHook HOOK = LatencyBudgets::check;
+
+    private LatencyBudgets() {
+    }
+
+    /** This method returns the hook which checks the budget of every single request, it's one of the reported
+     *  ExchangeHooks and does nothing unless the check is turned on.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method returns the budgets of every entry point, in milliseconds. */
+    public static Map<String, Map<String, Double>> budgets() {
+        return Holder.BUDGETS;
+    }
+
+    /** This method checks the recorded EndpointTimings against the budgets.
+     *
+     * @return - a description of every breached percentile, an empty list if all entry points are within budgets
+     */
+    public static List<String> breaches() {
+        List<String> breaches = new ArrayList<>();
+
+        budgets().forEach((endpoint, budget) -> {
+            Histogram histogram = EndpointTimings.histogram(endpoint);
+            if (histogram == null) {
+                return;
+            }
+            budget.forEach((percentile, limit) -> {
+                if (REQUEST.equals(percentile)) {
+                    return;
+                }
+                double millis = (percentile.equals("max")
+                        ? histogram.getMaxValue()
+                        : histogram.getValueAtPercentile(Double.parseDouble(percentile.substring(1)))) / 1000.0;
+
+                if (millis > limit) {
+                    breaches.add(String.format("%s breached %s: %.2f ms, the budget is %.0f ms (%d requests)",
+                            endpoint, percentile, millis, limit, histogram.getTotalCount()));
+                }
+            });
+        });
+        return breaches;
+    }
+
+    private static CompletableFuture<Reply> check(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        if (!Boolean.getBoolean(PER_REQUEST_PROPERTY)) {
+            return next.get();
+        }
+        long start = System.nanoTime();
+
+        return next.get().thenApply(reply -> {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            String endpoint = exchange.endpoint().toString();
+            Double limit = budgets().getOrDefault(endpoint, Collections.emptyMap()).get(REQUEST);
+
+            if (limit != null && millis > limit) {
+                throw new AssertionError(String.format("%s took %d ms, the budget of a request is %.0f ms",
+                        endpoint, millis, limit));
+            }
+            return reply;
+        });
+    }
+
+    private static Map<String, Map<String, Double>> load() {
+        String file = System.getProperty(FILE_PROPERTY);
+        TypeReference<Map<String, Map<String, Double>>> type = new TypeReference<>() { };
+
+        try (InputStream input = file != null && !file.isBlank()
+                ? Files.newInputStream(Paths.get(file))
+                : LatencyBudgets.class.getResourceAsStream("/latency-budgets.json")) {
+
+            if (input == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, Map<String, Double>> budgets = new ObjectMapper().readValue(input, type);
+
+            budgets.values().forEach(budget -> budget.keySet().forEach(percentile -> {
+                if (!percentile.equals(REQUEST) && !percentile.equals("max")
+                        && !percentile.matches("p\\d+(\\.\\d+)?")) {
+                    throw new IllegalStateException("Unexpected latency budget '" + percentile
+                            + "', expected 'pNN', 'max' or 'request'");
+                }
+            }));
+            return Collections.unmodifiableMap(budgets);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the latency budgets", e);
+        }
+    }
+
+    /** Lazy holder, so the budgets are read only once. */
+    private static final class Holder {
+
+        private static final Map<String, Map<String, Double>> BUDGETS = load();
+    }
+}
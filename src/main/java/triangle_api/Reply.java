@@ -0,0 +1,223 @@
+package triangle_api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.internal.RestAssuredResponseOptionsImpl;
+import io.restassured.response.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** This class is a response of the Triangle Service as the ExchangeHooks see it, whichever client received it or
+ *  whether it was replayed by a hook, e.g. from the Cassette or the ResourceCache. The body is decoded to a string
+ *  and parsed only once, however many hooks read it; the body of GET /triangle/all is decoded by the
+ *  AllTrianglesDecoder without a tree, see triangles().
+ *
+ *  A reply of the TriangleAsyncClient.forEachTriangle is streamed: its body was passed to the consumer while it was
+ *  being received, so the hooks see only the status and the headers.
+ */
+final class Reply {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int status;
+
+    private final String statusLine;
+
+    private final Map<String, String> headers;
+
+    private final Response original;
+
+    private final boolean streamed;
+
+    private volatile byte[] body;
+
+    private volatile String text;
+
+    private volatile JsonNode json;
+
+    private volatile List<Triangle> triangles;
+
+    Reply(int status, String statusLine, Map<String, String> headers, byte[] body) {
+        this(status, statusLine, headers, body, null, false);
+    }
+
+    private Reply(int status, String statusLine, Map<String, String> headers, byte[] body, Response original,
+                  boolean streamed) {
+        this.status = status;
+        this.statusLine = statusLine;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.original = original;
+        this.streamed = streamed;
+    }
+
+    /** This method returns the reply of a response of the TriangleClient, the body is read only when it's needed. */
+    static Reply of(Response response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+        return new Reply(response.getStatusCode(), response.getStatusLine(), headers, null, response, false);
+    }
+
+    /** This method returns the reply of a response of the TriangleAsyncClient.
+     *
+     * @param response - received response
+     * @param body - the whole body of the response
+     */
+    static Reply of(HttpResponse<?> response, byte[] body) {
+        return new Reply(response.statusCode(), statusLine(response), headers(response), body, null, false);
+    }
+
+    /** This method returns the reply of a response which body was consumed while it was being received. */
+    static Reply streamed(HttpResponse<?> response) {
+        return new Reply(response.statusCode(), statusLine(response), headers(response), new byte[0], null, true);
+    }
+
+    int status() {
+        return status;
+    }
+
+    String statusLine() {
+        return statusLine;
+    }
+
+    /** This method returns the headers in the order they were received, the names are in the case of the server. */
+    Map<String, String> headers() {
+        return headers;
+    }
+
+    /** This method returns the value of the header whatever the case of its name is, null if there is none. */
+    String header(String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /** This method returns true if the body was consumed while it was being received, see the class description. */
+    boolean isStreamed() {
+        return streamed;
+    }
+
+    /** This method returns the body, an empty array if there is none or it was streamed. */
+    byte[] body() {
+        byte[] bytes = body;
+        if (bytes == null) {
+            bytes = original.asByteArray();
+            body = bytes;
+        }
+        return bytes;
+    }
+
+    /** This method returns the body as a new stream, the body itself is kept for the other hooks. */
+    InputStream stream() {
+        return new ByteArrayInputStream(body());
+    }
+
+    /** This method returns the body decoded as UTF-8. */
+    String text() {
+        String decoded = text;
+        if (decoded == null) {
+            decoded = new String(body(), StandardCharsets.UTF_8);
+            text = decoded;
+        }
+        return decoded;
+    }
+
+    /** This method returns the body parsed as JSON.
+     *
+     * @throws UncheckedIOException - if the body isn't JSON
+     */
+    JsonNode json() {
+        JsonNode parsed = json;
+        if (parsed == null) {
+            try {
+                parsed = MAPPER.readTree(body());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to parse the response: " + text(), e);
+            }
+            json = parsed;
+        }
+        return parsed;
+    }
+
+    /** This method returns the triangles of the GET /triangle/all body, they're decoded token by token only once,
+     *  e.g. for both the ResponseSchemas and the Inventory.
+     *
+     * @throws UncheckedIOException - if the body isn't an array of triangles
+     */
+    List<Triangle> triangles() {
+        List<Triangle> decoded = triangles;
+        if (decoded == null) {
+            List<Triangle> list = new ArrayList<>();
+            try {
+                AllTrianglesDecoder.decode(stream(), (id, firstSide, secondSide, thirdSide) ->
+                        list.add(new Triangle(id, firstSide, secondSide, thirdSide)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to decode the triangles: " + text(), e);
+            }
+            decoded = Collections.unmodifiableList(list);
+            triangles = decoded;
+        }
+        return decoded;
+    }
+
+    /** This method returns the reply without the response of the client it was received by, e.g. to be kept and
+     *  replayed many times.
+     */
+    Reply detached() {
+        return original == null ? this : new Reply(status, statusLine, headers, body(), null, streamed);
+    }
+
+    /** This method returns the RestAssured response of the reply: the received one or a new one with the settings of
+     *  the client, e.g. the number return type, if the reply was replayed by a hook.
+     */
+    Response toResponse(RestAssuredConfig config) {
+        if (original != null) {
+            return original;
+        }
+        List<Header> list = new ArrayList<>();
+        headers.forEach((name, value) -> list.add(new Header(name, value)));
+        String contentType = header("Content-Type");
+
+        Response response = new ResponseBuilder()
+                .setStatusCode(status)
+                .setStatusLine(statusLine)
+                .setHeaders(new Headers(list))
+                .setContentType(contentType == null ? "" : contentType)
+                .setBody(body())
+                .build();
+        ((RestAssuredResponseOptionsImpl<?>) response).setConfig(config);
+
+        return response;
+    }
+
+    private static String statusLine(HttpResponse<?> response) {
+        return (response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2 " : "HTTP/1.1 ") + response.statusCode();
+    }
+
+    private static Map<String, String> headers(HttpResponse<?> response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> headers.put(name, String.join(",", values)));
+
+        return headers;
+    }
+}
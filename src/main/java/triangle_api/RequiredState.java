@@ -0,0 +1,16 @@
+package triangle_api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** This annotation declares the state of the triangles a test method, or every test method of a class, needs,
+ *  the TenantStateListener brings the personal token into the state before the test.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequiredState {
+
+    TenantState value();
+}
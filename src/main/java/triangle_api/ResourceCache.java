@@ -0,0 +1,220 @@
+package triangle_api;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/** This class caches the successful responses of GET /triangle/{id}, /triangle/{id}/area and
+ *  /triangle/{id}/perimeter on the client side. A triangle never changes once it's created, so the same request of
+ *  the same personal token is answered by the hook() without a round trip until the triangle is deleted: every
+ *  DELETE /triangle/{id} sent through the TriangleClient or the TriangleAsyncClient drops the responses of its ID.
+ *
+ *  The cache keeps up to 'triangle.cache.size' responses (1000 by default) and evicts the least recently used ones,
+ *  a response expires after 'triangle.cache.ttlMs' (60000 by default) in case the triangle was deleted by somebody
+ *  else. The cache is turned off with -Dtriangle.cache=false and while a Cassette is in use; the tests which verify
+ *  the responses of the service itself are marked with @BypassCache.
+ *
+ *  The hits and misses of every entry point are reported at the end of the suite by the ResourceCacheListener.
+ */
+public final class ResourceCache {
+
+    public static final String ENABLED_PROPERTY = "triangle.cache";
+
+    public static final String SIZE_PROPERTY = "triangle.cache.size";
+
+    public static final String TTL_PROPERTY = "triangle.cache.ttlMs";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+
+    private static final int SIZE = Integer.getInteger(SIZE_PROPERTY, 1000);
+
+    private static final long TTL_NANOS = Long.getLong(TTL_PROPERTY, 60_000L) * 1_000_000L;
+
+    private static final List<String> ROUTES = List.of("/triangle/{id}", "/triangle/{id}/area",
+            "/triangle/{id}/perimeter");
+
+    /** The responses in the order of access, guarded by itself */
+    private static final Map<String, Cached> RESPONSES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            if (size() > SIZE) {
+                EVICTIONS.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** When the triangles were deleted, by the token and the ID, guarded by the RESPONSES */
+    private static final Map<String, Long> DELETED = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > SIZE;
+        }
+    };
+
+    /** The hits and the misses of every entry point */
+    private static final Map<String, AtomicLong[]> COUNTERS = new ConcurrentSkipListMap<>();
+
+    private static final AtomicLong INVALIDATIONS = new AtomicLong();
+
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private static final AtomicLong BYPASSED = new AtomicLong();
+
+    private static final ExchangeHook HOOK = ResourceCache::serve;
+
+    private ResourceCache() {
+    }
+
+    /** This method returns the hook which answers the requests from the cache, it's one of the reported
+     *  ExchangeHooks.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method returns true unless the cache was turned off with -Dtriangle.cache=false or a cassette is used. */
+    public static boolean isEnabled() {
+        return ENABLED && !Cassette.isRecord() && !Cassette.isReplay();
+    }
+
+    /** This method drops the cached responses of the triangle.
+     *
+     * @param token - 'X-User' value
+     * @param id - ID of the triangle
+     */
+    static void invalidate(String token, String id) {
+        INVALIDATIONS.incrementAndGet();
+
+        synchronized (RESPONSES) {
+            for (String route : ROUTES) {
+                RESPONSES.remove(key(token, route, id));
+            }
+            DELETED.put(token + "\n" + id, System.nanoTime());
+        }
+    }
+
+    /** This method returns the hits and misses of every cached entry point, ordered by the entry point, e.g.
+     *  {endpoint=GET /triangle/{id}/area, hits=12, misses=30, hitRatio=0.29}.
+     */
+    public static List<Map<String, Object>> report() {
+        List<Map<String, Object>> report = new ArrayList<>();
+
+        COUNTERS.forEach((endpoint, counters) -> {
+            long hits = counters[0].get();
+            long misses = counters[1].get();
+            Map<String, Object> row = new LinkedHashMap<>();
+
+            row.put("endpoint", endpoint);
+            row.put("hits", hits);
+            row.put("misses", misses);
+            row.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            report.add(row);
+        });
+        return report;
+    }
+
+    /** This method returns the counters of the whole cache: {invalidations=.., evictions=.., bypassed=..}. */
+    public static Map<String, Long> counters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+
+        counters.put("invalidations", INVALIDATIONS.get());
+        counters.put("evictions", EVICTIONS.get());
+        counters.put("bypassed", BYPASSED.get());
+
+        return counters;
+    }
+
+    private static String key(String token, String route, String id) {
+        return token + "\n" + route + "\n" + id;
+    }
+
+    /** This method returns true if the running test is marked with @BypassCache. */
+    private static boolean isBypassed() {
+        ITestResult result = Reporter.getCurrentTestResult();
+
+        if (result == null || result.getMethod() == null) {
+            return false;
+        }
+        Method testMethod = result.getMethod().getConstructorOrMethod().getMethod();
+
+        return testMethod.isAnnotationPresent(BypassCache.class)
+                || testMethod.getDeclaringClass().isAnnotationPresent(BypassCache.class);
+    }
+
+    private static CompletableFuture<Reply> serve(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        String token = exchange.token();
+
+        if (!isEnabled() || token == null) {
+            return next.get();
+        }
+        Endpoint endpoint = exchange.endpoint();
+
+        if (endpoint.is("DELETE", "/triangle/{id}")) {
+            // whatever the outcome is, the triangle doesn't exist anymore or it's worth asking again
+            return next.get().whenComplete((reply, error) -> invalidate(token, endpoint.id()));
+        }
+        if (!endpoint.method().equals("GET") || !ROUTES.contains(endpoint.route())) {
+            return next.get();
+        }
+        if (isBypassed()) {
+            BYPASSED.incrementAndGet();
+            return next.get();
+        }
+        String key = key(token, endpoint.route(), endpoint.id());
+        AtomicLong[] counters = COUNTERS.computeIfAbsent(endpoint.toString(),
+                ignored -> new AtomicLong[]{new AtomicLong(), new AtomicLong()});
+        Cached cached;
+
+        synchronized (RESPONSES) {
+            cached = RESPONSES.get(key);
+            if (cached != null && System.nanoTime() - cached.storedAt > TTL_NANOS) {
+                RESPONSES.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            counters[0].incrementAndGet();
+            return CompletableFuture.completedFuture(cached.reply);
+        }
+        counters[1].incrementAndGet();
+
+        long sentAt = System.nanoTime();
+
+        return next.get().thenApply(reply -> {
+            if (reply.status() == 200 && !reply.isStreamed()) {
+                Cached fresh = new Cached(reply.detached());
+                synchronized (RESPONSES) {
+                    // a DELETE of the triangle which finished while the request was in flight makes the reply stale
+                    Long deletedAt = DELETED.get(token + "\n" + endpoint.id());
+                    if (deletedAt == null || deletedAt - sentAt < 0) {
+                        RESPONSES.put(key, fresh);
+                    }
+                }
+            }
+            return reply;
+        });
+    }
+
+    /** A cached reply */
+    private static final class Cached {
+
+        private final Reply reply;
+
+        private final long storedAt = System.nanoTime();
+
+        private Cached(Reply reply) {
+            this.reply = reply;
+        }
+    }
+}
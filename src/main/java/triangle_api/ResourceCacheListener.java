@@ -0,0 +1,37 @@
+package triangle_api;
+
+import io.qameta.allure.model.Status;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.Reporter;
+
+import java.util.List;
+import java.util.Map;
+
+/** This listener reports the hits and misses of the ResourceCache at the end of the suite: they're logged and
+ *  attached to the Allure report as the 'Resource cache' result.
+ */
+public class ResourceCacheListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        List<Map<String, Object>> cache = ResourceCache.report();
+
+        if (cache.isEmpty()) {
+            return;
+        }
+        StringBuilder table = new StringBuilder(String.format("%-32s %8s %8s %9s%n",
+                "Endpoint", "Hits", "Misses", "Hit ratio"));
+
+        for (Map<String, Object> row : cache) {
+            table.append(String.format("%-32s %8s %8s %8.1f%%%n", row.get("endpoint"), row.get("hits"),
+                    row.get("misses"), (Double) row.get("hitRatio") * 100));
+        }
+        Map<String, Long> counters = ResourceCache.counters();
+        table.append(String.format("%d invalidations, %d evictions, %d requests of @BypassCache tests%n",
+                counters.get("invalidations"), counters.get("evictions"), counters.get("bypassed")));
+        Reporter.log("Resource cache:\n" + table, true);
+
+        SuiteResults.attach(suite.getName(), "Resource cache", "Resource cache", Status.PASSED, null, table.toString());
+    }
+}
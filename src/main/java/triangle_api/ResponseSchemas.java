@@ -0,0 +1,195 @@
+package triangle_api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/** This class validates every response of the Triangle Service against the JSON schema of its payload: the triangle,
+ *  the list of triangles, the area/perimeter result or the error. The schemas are stored in /schemas of the
+ *  classpath and compiled once per JVM, the compiled schemas are thread-safe and shared by all requests, so the
+ *  validation stays cheap enough for the load runs. The list of triangles, which grows with the quota, is read
+ *  element by element and each triangle is checked against the items of triangles.json, so no tree of the whole
+ *  body is built.
+ *
+ *  The hook() fails the request with an AssertionError if the body doesn't match the schema; the validation can be
+ *  turned off with -Dtriangle.schema.validation=false.
+ */
+public final class ResponseSchemas {
+
+    public static final String VALIDATION_PROPERTY = "triangle.schema.validation";
+
+    /** This enum defines the payloads of the service and their schemas. */
+    public enum Payload {
+
+        TRIANGLE("triangle.json"),
+        TRIANGLES("triangles.json"),
+        RESULT("result.json"),
+        ERROR("error.json");
+
+        private final String file;
+
+        Payload(String file) {
+            this.file = file;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(VALIDATION_PROPERTY, "true"));
+
+    private static final ExchangeHook HOOK = ResponseSchemas::validate;
+
+    private ResponseSchemas() {
+    }
+
+    /** This method returns the hook which validates the responses, it's one of the ExchangeHooks of every request.
+     */
+    static ExchangeHook hook() {
+        return HOOK;
+    }
+
+    /** This method returns the payload the service responds with for the entry point and status.
+     *
+     * @param endpoint - entry point of the request
+     * @param status - status code of the response
+     * @return - payload or null if the response has no body, e.g. DELETE /triangle/{id} with 200
+     */
+    public static Payload payloadOf(Endpoint endpoint, int status) {
+        if (status >= 400) {
+            return Payload.ERROR;
+        }
+        if (status != 200) {
+            return null;
+        }
+        if (endpoint.is("POST", "/triangle") || endpoint.is("GET", "/triangle/{id}")) {
+            return Payload.TRIANGLE;
+        }
+        if (endpoint.is("GET", "/triangle/all")) {
+            return Payload.TRIANGLES;
+        }
+        if (endpoint.is("GET", "/triangle/{id}/area") || endpoint.is("GET", "/triangle/{id}/perimeter")) {
+            return Payload.RESULT;
+        }
+        return null;
+    }
+
+    /** This method validates the body against the schema of the payload, the list of triangles is checked element
+     *  by element, see validateTriangles().
+     *
+     * @param payload - expected payload
+     * @param body - body of the response
+     * @throws AssertionError - if the body isn't JSON or doesn't match the schema
+     */
+    public static void validate(Payload payload, String body) {
+        if (payload == Payload.TRIANGLES) {
+            validateTriangles(body.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        JsonNode json;
+        try {
+            json = MAPPER.readTree(body);
+        } catch (IOException e) {
+            throw new AssertionError("The response isn't a valid " + payload + " JSON: " + body, e);
+        }
+        check(payload, json, body);
+    }
+
+    private static CompletableFuture<Reply> validate(Exchange exchange, Supplier<CompletableFuture<Reply>> next) {
+        return next.get().thenApply(reply -> {
+            Payload payload = payloadOf(exchange.endpoint(), reply.status());
+
+            // a streamed body was checked by the AllTrianglesDecoder while it was being read, the service sends no
+            // body for some errors, e.g. 405 of HEAD requests
+            if (!ENABLED || payload == null || reply.isStreamed()
+                    || payload == Payload.ERROR && reply.body().length == 0) {
+                return reply;
+            }
+            if (payload == Payload.TRIANGLES) {
+                validateTriangles(reply.body());
+            } else {
+                validate(payload, reply.text());
+            }
+            return reply;
+        });
+    }
+
+    /** This method validates the list of triangles without a tree of the whole body: the array is read element by
+     *  element and each of them is validated against the items of the triangles.json schema, so only one triangle
+     *  is kept as a tree at a time.
+     *
+     * @param body - body of GET /triangle/all
+     * @throws AssertionError - if the body isn't an array or an element doesn't match the schema
+     */
+    private static void validateTriangles(byte[] body) {
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new AssertionError("The response isn't a valid " + Payload.TRIANGLES + " JSON: "
+                        + ExchangeLog.cut(new String(body, StandardCharsets.UTF_8), 1000));
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode triangle = MAPPER.readTree(parser);
+                check(Payload.TRIANGLES, triangle, triangle.toString());
+            }
+        } catch (IOException e) {
+            throw new AssertionError("The response isn't a valid " + Payload.TRIANGLES + " JSON: "
+                    + ExchangeLog.cut(new String(body, StandardCharsets.UTF_8), 1000), e);
+        }
+    }
+
+    /** This method checks the JSON against the compiled schema of the payload.
+     *
+     * @param payload - expected payload, the schema of TRIANGLES is the one of its items
+     * @param json - JSON of the body or of an element of the list, null if the body is empty
+     * @param body - body or element to describe the violation with
+     * @throws AssertionError - if the JSON doesn't match the schema
+     */
+    private static void check(Payload payload, JsonNode json, String body) {
+        JsonSchema schema = Compiled.SCHEMAS.get(payload);
+
+        try {
+            // let's skip building the report for valid bodies, it's needed only to describe the violation
+            if (json == null || !schema.validInstance(json)) {
+                ProcessingReport report = json == null ? null : schema.validate(json);
+                throw new AssertionError("The response doesn't match the " + payload.file + " schema: " + body
+                        + (report == null ? "" : "\n" + report));
+            }
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Unable to validate the response with the " + payload.file + " schema", e);
+        }
+    }
+
+    /** Lazy holder, so the schemas are loaded and compiled only once and only when they're needed. */
+    private static final class Compiled {
+
+        private static final Map<Payload, JsonSchema> SCHEMAS = compile();
+
+        private static Map<Payload, JsonSchema> compile() {
+            JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+            Map<Payload, JsonSchema> schemas = new EnumMap<>(Payload.class);
+
+            for (Payload payload : Payload.values()) {
+                try {
+                    // the resource URI lets the schemas refer to each other, e.g. "$ref": "triangle.json#", the list
+                    // of triangles is validated element by element, so it's compiled from the pointer to its items
+                    String pointer = payload == Payload.TRIANGLES ? "#/items" : "";
+                    schemas.put(payload, factory.getJsonSchema("resource:/schemas/" + payload.file + pointer));
+                } catch (ProcessingException e) {
+                    throw new IllegalStateException("Unable to compile the " + payload.file + " schema", e);
+                }
+            }
+            return schemas;
+        }
+    }
+}
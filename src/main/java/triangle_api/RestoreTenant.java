@@ -0,0 +1,14 @@
+package triangle_api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** This annotation marks a test method, or every test method of a class, whose changes to the triangles of the
+ *  personal token are undone right after it by the TenantLeaseListener.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RestoreTenant {
+}
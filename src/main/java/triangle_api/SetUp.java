@@ -1,37 +1,32 @@
 package triangle_api;
 
-import io.restassured.config.JsonConfig;
-import io.restassured.path.json.config.JsonPathConfig;
-import org.testng.annotations.BeforeClass;
+import io.restassured.specification.RequestSpecification;
+import org.testng.annotations.AfterSuite;
 
-import io.qameta.allure.restassured.AllureRestAssured;
-import io.restassured.RestAssured;
-import io.restassured.builder.RequestSpecBuilder;
-import io.restassured.config.EncoderConfig;
+import java.util.List;
 
 public class SetUp {
 
-    @BeforeClass
-    public void setup() {
-
-        RestAssured.baseURI = "https://qa-quiz.natera.com/";
-
-        RestAssured.basePath = "/triangle/";
-
-        JsonConfig jsonConfig = JsonConfig.jsonConfig()
-                .numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE);
-
-        RestAssured.config = RestAssured.config()
-                .jsonConfig(jsonConfig)
-                .encoderConfig(EncoderConfig
-                        .encoderConfig()
-                        .defaultContentCharset("UTF-8"));
+    /** This method fails the suite if an entry point breached its LatencyBudgets, once all tests are finished; the
+     *  breaches are also reported by the EndpointTimingsListener.
+     *
+     * @throws AssertionError - if a budget was breached
+     */
+    @AfterSuite(alwaysRun = true)
+    public void checkLatencyBudgets() {
+        List<String> breaches = LatencyBudgets.breaches();
+
+        if (!breaches.isEmpty()) {
+            throw new AssertionError("The latency budgets were breached:\n" + String.join("\n", breaches));
+        }
+    }
 
-        RestAssured.requestSpecification = new RequestSpecBuilder()
-                .addHeader("X-User", "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564")
-                .build()
-                .filter(new AllureRestAssured()
-                .setRequestTemplate("http-request.ftl")
-                .setResponseTemplate("http-response.ftl"));
+    /** This method returns the request specification for the current test: base URI, base path, config, Allure filter
+     *  and the personal token leased to the current thread, so tests can be executed in parallel.
+     *
+     * @return - request specification of the current thread
+     */
+    protected static RequestSpecification spec() {
+        return TriangleClient.shared().spec();
     }
 }
@@ -0,0 +1,117 @@
+package triangle_api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/** This class lets the concurrent callers of the same key share a single load and its result, e.g. the threads
+ *  which need GET /triangle/all of the same personal token at once send only one request. The caller which comes
+ *  first loads the value on its own thread, the others wait for it. A loaded value may be reused for the TTL after
+ *  it was loaded, 0 means that only the load in flight is shared.
+ *
+ *  Every call tells the generation of the data it needs, e.g. the number of changes the caller knows about: a load
+ *  of an older generation isn't shared, so a caller never gets a value which was loaded before its own changes.
+ *  A failed load isn't kept, its callers get the same error and the next call loads again.
+ */
+final class SingleFlight<K, V> {
+
+    private final long ttlNanos;
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicLong loads = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong cached = new AtomicLong();
+
+    SingleFlight(long ttlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    /** This method returns the value of the key, it's loaded only if no load of the same generation is in flight or
+     *  was finished within the TTL.
+     *
+     * @param key - key of the value, e.g. the personal token
+     * @param generation - generation of the data the caller needs
+     * @param load - loads the value, it's called on the calling thread
+     * @return - the loaded value
+     */
+    V get(K key, long generation, Supplier<V> load) {
+        calls.incrementAndGet();
+
+        Flight<V> ours = new Flight<>(generation);
+        Flight<V> flight = flights.compute(key, (ignored, current) ->
+                current != null && current.generation == generation && current.isFresh(ttlNanos) ? current : ours);
+
+        if (flight != ours) {
+            (flight.result.isDone() ? cached : coalesced).incrementAndGet();
+            try {
+                return flight.result.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        loads.incrementAndGet();
+        try {
+            V value = load.get();
+            ours.loadedAt = System.nanoTime();
+            ours.result.complete(value);
+
+            return value;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, ours);
+            ours.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** This method returns the counters of the calls, e.g. {calls=120, loads=80, coalesced=30, cached=10}. */
+    Map<String, Long> counters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+
+        counters.put("calls", calls.get());
+        counters.put("loads", loads.get());
+        counters.put("coalesced", coalesced.get());
+        counters.put("cached", cached.get());
+
+        return counters;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+    /** A load of a generation, in flight or finished */
+    private static final class Flight<V> {
+
+        private final long generation;
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private volatile long loadedAt;
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+
+        private boolean isFresh(long ttlNanos) {
+            if (!result.isDone()) {
+                return true;
+            }
+            return !result.isCompletedExceptionally() && System.nanoTime() - loadedAt <= ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package triangle_api;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.util.ResultsUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/** This class reports the summaries of the suite, e.g. the endpoint timings or the bulk concurrency, as separate
+ *  results of the Allure report, since no test is running when the suite is finished.
+ */
+final class SuiteResults {
+
+    private SuiteResults() {
+    }
+
+    /** This method adds a result with the text attached to the Allure report.
+     *
+     * @param suiteName - name of the suite
+     * @param name - name of the result
+     * @param attachmentName - name of the attachment with the text, e.g. with the unit of its values
+     * @param status - status of the result
+     * @param details - details of the status, null if there are none
+     * @param text - text of the attachment
+     */
+    static void attach(String suiteName, String name, String attachmentName, Status status, StatusDetails details,
+                       String text) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String uuid = UUID.randomUUID().toString();
+
+        lifecycle.scheduleTestCase(new TestResult()
+                .setUuid(uuid)
+                .setName(name)
+                .setFullName(suiteName + "." + name)
+                .setStatus(status)
+                .setStatusDetails(details)
+                .setLabels(List.of(ResultsUtils.createSuiteLabel(suiteName),
+                        ResultsUtils.createSubSuiteLabel(name))));
+        lifecycle.startTestCase(uuid);
+        lifecycle.addAttachment(attachmentName, "text/plain", "txt", text.getBytes(StandardCharsets.UTF_8));
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+}
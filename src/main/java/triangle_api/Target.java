@@ -0,0 +1,124 @@
+package triangle_api;
+
+import triangle_api.embedded.EmbeddedTriangleService;
+
+/** This class resolves the Triangle Service instance the suite talks to. The target is selected with the
+ *  'triangle.target' system property:
+ *  remote - the public service at https://qa-quiz.natera.com/ (default);
+ *  embedded - an in-process stand-in which is started once per JVM on the first call and stopped on exit;
+ *  http(s)://host:port/ - any other instance, e.g. the stand-in started separately with
+ *  EmbeddedTriangleService.main().
+ *
+ *  With the 'triangle.faults' system property the requests are sent to the target through the FaultProxy.
+ *
+ *  The number of triangles the target allows per personal token is 10 as specified for the service, the embedded
+ *  stand-in takes it from the 'triangle.embedded.quota' system property and any other instance from 'triangle.quota'.
+ */
+public final class Target {
+
+    public static final String PROPERTY = "triangle.target";
+
+    public static final String REMOTE_URI = "https://qa-quiz.natera.com/";
+
+    public static final String BASE_PATH = "/triangle/";
+
+    public static final String QUOTA_PROPERTY = "triangle.quota";
+
+    private Target() {
+    }
+
+    /** This method returns true if the suite was started with -Dtriangle.target=embedded.
+     *
+     * @return - true for the embedded stand-in, false for the remote service
+     */
+    public static boolean isEmbedded() {
+        String target = System.getProperty(PROPERTY, "remote").trim();
+
+        switch (target) {
+            case "embedded":
+                return true;
+            case "":
+            case "remote":
+                return false;
+            default:
+                if (target.startsWith("http://") || target.startsWith("https://")) {
+                    return false;
+                }
+                throw new IllegalStateException("Unexpected " + PROPERTY + " value: " + target
+                        + ", expected 'embedded', 'remote' or a base URI");
+        }
+    }
+
+    /** This method returns the number of triangles the selected target allows per personal token.
+     *
+     * @return - quota of the embedded stand-in or of the instance specified with -Dtriangle.target=<URI>, 10 for the
+     * remote service
+     */
+    public static int quota() {
+        if (isEmbedded()) {
+            return Integer.getInteger(EmbeddedTriangleService.QUOTA_PROPERTY, EmbeddedTriangleService.DEFAULT_QUOTA);
+        }
+        if (System.getProperty(PROPERTY, "remote").trim().startsWith("http")) {
+            return Integer.getInteger(QUOTA_PROPERTY, EmbeddedTriangleService.DEFAULT_QUOTA);
+        }
+        return EmbeddedTriangleService.DEFAULT_QUOTA;
+    }
+
+    /** This method returns the base URI of the selected target, starting the embedded stand-in and the fault proxy
+     *  if they're needed.
+     *
+     * @return - base URI ending with '/'
+     */
+    public static String baseUri() {
+        return FaultProxy.isEnabled() ? Proxied.PROXY.baseUri() : targetUri();
+    }
+
+    /** This method returns the fault proxy the requests are sent through.
+     *
+     * @return - running proxy, null unless the suite was started with -Dtriangle.faults=<file>
+     */
+    public static FaultProxy proxy() {
+        return FaultProxy.isEnabled() ? Proxied.PROXY : null;
+    }
+
+    /** This method returns the base URI of the embedded stand-in itself, never the one of the FaultProxy, e.g. for a
+     *  proxy of a test's own. The stand-in is started on the first call.
+     *
+     * @return - base URI, e.g. http://127.0.0.1:54321/
+     */
+    public static String embeddedUri() {
+        return Embedded.SERVICE.baseUri();
+    }
+
+    private static String targetUri() {
+        if (isEmbedded()) {
+            return embeddedUri();
+        }
+        String target = System.getProperty(PROPERTY, "remote").trim();
+
+        if (target.startsWith("http")) {
+            return target.endsWith("/") ? target : target + "/";
+        }
+        return REMOTE_URI;
+    }
+
+    /** Lazy holder, so the proxy is started only once and only when the faults were specified. */
+    private static final class Proxied {
+
+        private static final FaultProxy PROXY = FaultProxy.start(targetUri());
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(PROXY::stop, "triangle-fault-proxy-stop"));
+        }
+    }
+
+    /** Lazy holder, so the stand-in is started only once and only when it was selected. */
+    private static final class Embedded {
+
+        private static final EmbeddedTriangleService SERVICE = EmbeddedTriangleService.start();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(SERVICE::stop, "embedded-triangle-service-stop"));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package triangle_api;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.xml.XmlSuite;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/** This listener lets the suite run in parallel with the personal tokens of the TenantPool: the number of threads
+ *  of a parallel suite is set to the number of tokens and the token leased by a test is released right after it,
+ *  so each test works with its own triangles and quota for the whole time it runs.
+ *
+ *  TestNG doesn't guarantee the order of the listeners, so everything done with the token of a test is done by this
+ *  listener, one step after another: before the test the token is leased, brought into the TenantState the test
+ *  requires, the Cassette records or restores the state of the client the test starts from and a TenantSnapshot is
+ *  taken if the test is marked with @RestoreTenant; after the test the snapshot is restored, the Cassette is told
+ *  the test is finished and only then the token is released. The snapshot is taken in the required state, so the
+ *  restore leaves the token in that state for the next test, which likely requires the same one.
+ */
+public class TenantLeaseListener implements IAlterSuiteListener, IInvokedMethodListener {
+
+    private static final String SNAPSHOT_ATTRIBUTE = "triangle.snapshot";
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int tenants = TenantPool.shared().size();
+
+        for (XmlSuite suite : suites) {
+            if (suite.getParallel() != XmlSuite.ParallelMode.NONE) {
+                suite.setThreadCount(tenants);
+                suite.getTests().forEach(test -> test.setThreadCount(tenants));
+            }
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        TenantPool.shared().current();
+        TenantStateListener.reach(method.getTestMethod());
+        Cassette.started();
+
+        if (restores(method)) {
+            testResult.setAttribute(SNAPSHOT_ATTRIBUTE, TenantSnapshot.take());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Object snapshot = testResult.removeAttribute(SNAPSHOT_ATTRIBUTE);
+        try {
+            if (snapshot != null) {
+                ((TenantSnapshot) snapshot).restore();
+            }
+        } catch (RuntimeException | AssertionError e) {
+            // the result of the test stays as it is, the next tests reconcile the inventory anyway
+            Inventory.current().invalidate();
+            Reporter.log("The triangles of " + method + " weren't restored: " + e, true);
+        } finally {
+            if (method.isTestMethod()) {
+                Cassette.finished();
+            }
+            TenantPool.shared().release();
+        }
+    }
+
+    private static boolean restores(IInvokedMethod method) {
+        Method testMethod = method.getTestMethod().getConstructorOrMethod().getMethod();
+
+        return testMethod.isAnnotationPresent(RestoreTenant.class)
+                || testMethod.getDeclaringClass().isAnnotationPresent(RestoreTenant.class);
+    }
+}
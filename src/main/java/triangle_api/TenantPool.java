@@ -0,0 +1,130 @@
+package triangle_api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/** This class hands out personal tokens ('X-User' values), so every thread works with its own set of triangles
+ *  and its own quota. A thread leases a token on its first request and keeps it until release() is called,
+ *  e.g. after each test method; if all tokens are leased, the thread waits for one to be released.
+ *
+ *  The tokens are taken from the first source available:
+ *  -Dtriangle.tokens.file=path - a file with one token per line, lines starting with '#' are ignored;
+ *  TRIANGLE_TOKENS environment variable - tokens separated by commas or whitespaces;
+ *  the embedded target - -Dtriangle.tenants (4 by default) random UUIDs, the stand-in accepts any of them;
+ *  the personal token of the suite otherwise.
+ */
+public final class TenantPool {
+
+    public static final String TOKENS_FILE_PROPERTY = "triangle.tokens.file";
+
+    public static final String TOKENS_ENV = "TRIANGLE_TOKENS";
+
+    public static final String TENANTS_PROPERTY = "triangle.tenants";
+
+    private final List<String> tokens;
+
+    private final BlockingQueue<String> available;
+
+    private final ThreadLocal<String> leased = new ThreadLocal<>();
+
+    private TenantPool(List<String> tokens) {
+        this.tokens = List.copyOf(tokens);
+        this.available = new ArrayBlockingQueue<>(tokens.size(), true, tokens);
+    }
+
+    /** This method returns the pool shared by the whole suite, the tokens are loaded on the first call.
+     *
+     * @return - shared pool
+     */
+    public static TenantPool shared() {
+        return Holder.INSTANCE;
+    }
+
+    /** This method returns the number of tokens in the pool, i.e. how many threads can work at the same time. */
+    public int size() {
+        return tokens.size();
+    }
+
+    /** This method returns all tokens of the pool regardless of whether they are leased or not. */
+    public List<String> tokens() {
+        return tokens;
+    }
+
+    /** This method returns the token leased to the current thread, leasing one first if the thread has none.
+     *
+     * @return - 'X-User' value
+     */
+    public String current() {
+        String token = leased.get();
+
+        if (token == null) {
+            try {
+                token = available.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a free personal token", e);
+            }
+            leased.set(token);
+        }
+        return token;
+    }
+
+    /** This method returns the token leased to the current thread without leasing one, null if there's none. */
+    String leased() {
+        return leased.get();
+    }
+
+    /** This method returns the token leased to the current thread back to the pool, if there's one. */
+    public void release() {
+        String token = leased.get();
+
+        if (token != null) {
+            leased.remove();
+            available.add(token);
+        }
+    }
+
+    private static TenantPool load() {
+        Set<String> tokens = new LinkedHashSet<>();
+        String file = System.getProperty(TOKENS_FILE_PROPERTY);
+        String env = System.getenv(TOKENS_ENV);
+
+        if (file != null && !file.isBlank()) {
+            try {
+                for (String line : Files.readAllLines(Paths.get(file))) {
+                    if (!line.isBlank() && !line.trim().startsWith("#")) {
+                        tokens.add(line.trim());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read the personal tokens from " + file, e);
+            }
+        } else if (env != null && !env.isBlank()) {
+            tokens.addAll(Arrays.asList(env.trim().split("[,\\s]+")));
+        } else if (Target.isEmbedded()) {
+            for (int i = Integer.getInteger(TENANTS_PROPERTY, 4); i > 0; i--) {
+                tokens.add(UUID.randomUUID().toString());
+            }
+        }
+        if (tokens.isEmpty()) {
+            tokens.add(TriangleClient.TOKEN);
+        }
+        return new TenantPool(new ArrayList<>(tokens));
+    }
+
+    /** Lazy holder, so the tokens are loaded only once. */
+    private static final class Holder {
+
+        private static final TenantPool INSTANCE = load();
+    }
+}
@@ -0,0 +1,111 @@
+package triangle_api;
+
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+/** This class keeps the triangles of the personal token leased to the current thread as they were at some moment,
+ *  so they can be restored afterwards without deleting and creating all of them again.
+ *
+ *  The restore() takes the minimal set of changes: the triangles which are still present are kept, a triangle which
+ *  was deleted is matched with a new triangle of the same sides if there is one, and only the rest are deleted and
+ *  created, all the deletes at once and then all the creates at once. The service assigns new IDs to the created
+ *  triangles, so only the sides of the restored triangles are the same as in the snapshot.
+ */
+public final class TenantSnapshot {
+
+    private final String token;
+
+    private final List<Triangle> triangles;
+
+    private TenantSnapshot(String token, List<Triangle> triangles) {
+        this.token = token;
+        this.triangles = triangles;
+    }
+
+    /** This method takes a snapshot of the triangles of the personal token leased to the current thread, it costs
+     *  a single request to /triangle/all.
+     *
+     * @return - the snapshot
+     */
+    public static TenantSnapshot take() {
+        return new TenantSnapshot(TenantPool.shared().current(), getAllTriangles());
+    }
+
+    /** This method returns the triangles of the snapshot. */
+    public List<Triangle> triangles() {
+        return new ArrayList<>(triangles);
+    }
+
+    /** This method brings the triangles of the token back to the snapshot, it must be called on a thread which has
+     *  the same token leased.
+     *
+     * @return - the number of deleted and created triangles
+     */
+    public int restore() {
+        if (!token.equals(TenantPool.shared().leased())) {
+            throw new IllegalStateException("The snapshot can be restored only with its personal token leased");
+        }
+        Map<String, Triangle> extra = new LinkedHashMap<>();
+        for (Triangle triangle : getAllTriangles()) {
+            extra.put(triangle.id(), triangle);
+        }
+        List<Triangle> missing = new ArrayList<>();
+
+        for (Triangle triangle : triangles) {
+            if (extra.remove(triangle.id()) == null) {
+                missing.add(triangle);
+            }
+        }
+        // let's keep the new triangles which have the same sides as the deleted ones
+        for (Iterator<Triangle> it = missing.iterator(); it.hasNext(); ) {
+            double[] sides = it.next().sides();
+            for (Triangle triangle : extra.values()) {
+                if (triangle.hasSides(sides[0], sides[1], sides[2])) {
+                    extra.remove(triangle.id());
+                    it.remove();
+                    break;
+                }
+            }
+        }
+        if (!extra.isEmpty()) {
+            Helpers.deleteAllTriangles(new ArrayList<>(extra.keySet()));
+        }
+        if (!missing.isEmpty()) {
+            List<double[]> listOfSides = new ArrayList<>();
+            missing.forEach(triangle -> listOfSides.add(triangle.sides()));
+            Helpers.createTriangles(listOfSides);
+        }
+        AsyncReporter.log("The triangles were restored to the snapshot: " + extra.size() + " deleted, "
+                + missing.size() + " created.", true);
+
+        return extra.size() + missing.size();
+    }
+
+    /** This method returns all triangles of the current token with their sides, the response is also reconciled
+     *  with the Inventory by the filter of the specification.
+     */
+    private static List<Triangle> getAllTriangles() {
+        Response response =
+
+                given()
+                        .spec(TriangleClient.shared().spec())
+                        .contentType(ContentType.JSON)
+                .when()
+                        .get("/all")
+                .then()
+                .assertThat()
+                        .statusCode(200)
+                        .extract()
+                        .response();
+
+        return Triangle.listOf(response);
+    }
+}
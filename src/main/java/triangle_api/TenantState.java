@@ -0,0 +1,134 @@
+package triangle_api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** This enum defines the states of the triangles of a personal token which the tests can require with
+ *  @RequiredState. The TenantStateListener runs the tests of the same state one after another and brings the token
+ *  into the state before each test, with the number of triangles taken from the Inventory.
+ *
+ *  The states are declared in the order they are run: most tests add triangles, so the states a growing number of
+ *  triangles keeps come first, and EMPTY, whose tests fill the token up, is the last one. ANY needs no transition.
+ */
+public enum TenantState {
+
+    /** There's room for at least one new triangle */
+    NOT_FULL,
+    /** There's at least one triangle */
+    NOT_EMPTY,
+    /** All Inventory.LIMIT triangles are present */
+    FULL,
+    /** There are no triangles */
+    EMPTY,
+    /** The test doesn't depend on the triangles */
+    ANY;
+
+    /** This method returns true if the state holds for the specified number of triangles. */
+    public boolean holds(int count) {
+        switch (this) {
+            case NOT_FULL:
+                return count < Inventory.LIMIT;
+            case NOT_EMPTY:
+                return count > 0;
+            case FULL:
+                return count >= Inventory.LIMIT;
+            case EMPTY:
+                return count == 0;
+            default:
+                return true;
+        }
+    }
+
+    /** This method brings the triangles of the token leased to the current thread into the state with the fewest
+     *  requests: nothing is sent if the Inventory already fits the state. The Inventory is reconciled with /all
+     *  first if it's unknown, e.g. after a failed request.
+     *
+     * @return - the number of triangles the transition started from and the number of requests sent
+     */
+    public Transition ensure() {
+        Inventory inventory = Inventory.current();
+        int reconciled = 0;
+
+        if (inventory.needsReconcile()) {
+            Helpers.getAllTriangles();
+            reconciled++;
+        }
+        int count = inventory.count();
+
+        return new Transition(count, reconciled + transit(inventory, count));
+    }
+
+    /** This method sends the requests which bring the triangles from the count into the state.
+     *
+     * @return - the number of requests sent
+     */
+    private int transit(Inventory inventory, int count) {
+        if (holds(count)) {
+            return 0;
+        }
+        switch (this) {
+            case NOT_FULL:
+                // deleteOneTriangle verifies the delete with /all
+                Helpers.deleteOneTriangle(inventory.ids().get(0));
+                return 2;
+            case NOT_EMPTY:
+            case FULL:
+                List<double[]> listOfSides = new ArrayList<>();
+                for (int i = this == FULL ? Inventory.LIMIT - count : 1; i > 0; i--) {
+                    listOfSides.add(Helpers.genSides(Helpers.Strategy.VALID_VALUES, "#", 10));
+                }
+                Helpers.createTriangles(listOfSides);
+                return listOfSides.size();
+            case EMPTY:
+                // deleteAllTriangles verifies the deletes with /all
+                Helpers.deleteAllTriangles(inventory.ids());
+                return count + 1;
+            default:
+                return 0;
+        }
+    }
+
+    /** This method returns the number of requests the state would take if the test brought it about by itself, i.e.
+     *  requested /all and cleaned up or created the triangles it needs regardless of the Inventory.
+     *
+     * @param count - the number of triangles before the test
+     * @return - the number of requests
+     */
+    int unconditionalCost(int count) {
+        switch (this) {
+            case NOT_FULL:
+                return 1 + (holds(count) ? 0 : 2);
+            case NOT_EMPTY:
+                return 1 + (holds(count) ? 0 : 1);
+            case FULL:
+                return 1 + Inventory.LIMIT - count;
+            case EMPTY:
+                return 1 + (holds(count) ? 0 : count + 1);
+            default:
+                return 0;
+        }
+    }
+
+    /** This class describes a transition made by ensure(). */
+    public static final class Transition {
+
+        private final int from;
+
+        private final int requests;
+
+        Transition(int from, int requests) {
+            this.from = from;
+            this.requests = requests;
+        }
+
+        /** This method returns the number of triangles the token had before the transition. */
+        public int from() {
+            return from;
+        }
+
+        /** This method returns the number of requests sent, including the reconciliation with /all. */
+        public int requests() {
+            return requests;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package triangle_api;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.Reporter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** This listener runs the tests which require the same TenantState one after another, in the order of the states,
+ *  and reach() brings the leased personal token into the required state before each test; it's called by the
+ *  TenantLeaseListener right after the token is leased. The tests without @RequiredState are run as ANY.
+ *
+ *  At the end of the suite the requests sent for the transitions are reported together with the requests the
+ *  tests would have sent if each of them had requested /all and cleaned up the triangles by itself.
+ */
+public class TenantStateListener implements IMethodInterceptor, ISuiteListener {
+
+    private static final AtomicInteger TESTS = new AtomicInteger();
+
+    private static final AtomicInteger TRANSITIONS = new AtomicInteger();
+
+    private static final AtomicInteger SENT = new AtomicInteger();
+
+    private static final AtomicInteger UNCONDITIONAL = new AtomicInteger();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        // the sort is stable, so the tests of the same state keep the order of the classes
+        ordered.sort(Comparator.comparing(instance -> stateOf(instance.getMethod())));
+
+        return ordered;
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (TESTS.get() > 0) {
+            Reporter.log(TESTS + " tests required a state of the triangles, " + TRANSITIONS
+                    + " of them changed it with " + SENT + " requests. " + (UNCONDITIONAL.get() - SENT.get())
+                    + " requests were saved against cleaning up in every test (" + UNCONDITIONAL + ").", true);
+        }
+    }
+
+    /** This method brings the personal token leased to the current thread into the state the test requires.
+     *
+     * @param testMethod - the test which is about to run
+     */
+    static void reach(ITestNGMethod testMethod) {
+        TenantState state = stateOf(testMethod);
+        // the replayed responses were recorded in the state the test required already
+        if (state == TenantState.ANY || Cassette.isReplay()) {
+            return;
+        }
+        TenantState.Transition transition;
+        // the requests depend on the tests run on the token before, so they're kept apart from the test's in a cassette
+        Cassette.scopeTo(Cassette.scope() + "#state");
+        try {
+            transition = state.ensure();
+        } finally {
+            Cassette.scopeTo(null);
+        }
+
+        TESTS.incrementAndGet();
+        if (!state.holds(transition.from())) {
+            TRANSITIONS.incrementAndGet();
+        }
+        SENT.addAndGet(transition.requests());
+        UNCONDITIONAL.addAndGet(state.unconditionalCost(transition.from()));
+    }
+
+    private static TenantState stateOf(ITestNGMethod testMethod) {
+        Method method = testMethod.getConstructorOrMethod().getMethod();
+        RequiredState required = method.getAnnotation(RequiredState.class);
+
+        if (required == null) {
+            required = method.getDeclaringClass().getAnnotation(RequiredState.class);
+        }
+        return required == null ? TenantState.ANY : required.value();
+    }
+}
@@ -0,0 +1,113 @@
+package triangle_api;
+
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/** This class is a triangle as the service returns it. The responses are parsed once with the AllTrianglesDecoder,
+ *  so the assertions are done on the typed values instead of evaluating a GPath expression for every field.
+ */
+public final class Triangle {
+
+    private final String id;
+
+    private final double firstSide;
+
+    private final double secondSide;
+
+    private final double thirdSide;
+
+    public Triangle(String id, double firstSide, double secondSide, double thirdSide) {
+        this.id = id;
+        this.firstSide = firstSide;
+        this.secondSide = secondSide;
+        this.thirdSide = thirdSide;
+    }
+
+    /** This method parses the triangle of the POST /triangle or GET /triangle/{id} response.
+     *
+     * @param response - response with a triangle object
+     * @return - triangle, a missing side is NaN
+     */
+    public static Triangle of(Response response) {
+        Triangle[] triangle = new Triangle[1];
+        try {
+            AllTrianglesDecoder.decodeOne(AllTrianglesDecoder.body(response), (id, firstSide, secondSide, thirdSide) ->
+                    triangle[0] = new Triangle(id, firstSide, secondSide, thirdSide));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to parse the triangle: " + response.asString(), e);
+        }
+        return triangle[0];
+    }
+
+    /** This method parses all triangles of the GET /triangle/all response.
+     *
+     * @param response - response with an array of triangles
+     * @return - triangles in the order of the response
+     */
+    public static List<Triangle> listOf(Response response) {
+        List<Triangle> triangles = new ArrayList<>();
+        try {
+            AllTrianglesDecoder.decode(AllTrianglesDecoder.body(response), (id, firstSide, secondSide, thirdSide) ->
+                    triangles.add(new Triangle(id, firstSide, secondSide, thirdSide)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to parse the triangles: " + response.asString(), e);
+        }
+        return triangles;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public double firstSide() {
+        return firstSide;
+    }
+
+    public double secondSide() {
+        return secondSide;
+    }
+
+    public double thirdSide() {
+        return thirdSide;
+    }
+
+    /** This method returns a new array with the first, second and third sides. */
+    public double[] sides() {
+        return new double[]{firstSide, secondSide, thirdSide};
+    }
+
+    /** This method returns true if the triangle has exactly the specified sides in the same order. */
+    public boolean hasSides(double firstSide, double secondSide, double thirdSide) {
+        return Double.compare(this.firstSide, firstSide) == 0
+                && Double.compare(this.secondSide, secondSide) == 0
+                && Double.compare(this.thirdSide, thirdSide) == 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Triangle)) {
+            return false;
+        }
+        Triangle triangle = (Triangle) other;
+        return Objects.equals(id, triangle.id) && triangle.hasSides(firstSide, secondSide, thirdSide);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, firstSide, secondSide, thirdSide);
+    }
+
+    @Override
+    public String toString() {
+        return "Triangle{id=" + id + ", sides=" + Arrays.toString(sides()) + "}";
+    }
+}
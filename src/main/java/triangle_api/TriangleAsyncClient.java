@@ -0,0 +1,233 @@
+package triangle_api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/** This class sends requests to the Triangle Service without blocking the caller: every method returns right away
+ *  with a CompletableFuture, so many requests can be in flight at once, e.g. while a test creates its triangles.
+ *  It uses the same base URI as the TriangleClient and the personal token leased to the calling thread, and every
+ *  request goes through the same reported ExchangeHooks as the requests of the TriangleClient, e.g. the Inventory,
+ *  the validation, the log and the timings.
+ *
+ *  The requests go through java.net.http.HttpClient; HTTPS targets are asked for HTTP/2, so the requests share a
+ *  single multiplexed connection, plain HTTP targets (e.g. the embedded stand-in) use pooled HTTP/1.1 connections.
+ *
+ *  A future completes exceptionally with an IllegalStateException if the service responds with a status other than
+ *  200, the response body is a part of the message.
+ */
+public final class TriangleAsyncClient {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(TriangleClient.socketTimeoutMs());
+
+    private final URI baseUri;
+
+    private final HttpClient httpClient;
+
+    private TriangleAsyncClient(String baseUri) {
+        this.baseUri = URI.create(baseUri).resolve(Target.BASE_PATH);
+        this.httpClient = HttpClient.newBuilder()
+                .version(this.baseUri.getScheme().equals("https") ? HttpClient.Version.HTTP_2
+                        : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(TriangleClient.connectTimeoutMs()))
+                .build();
+    }
+
+    /** This method returns the client shared by the whole suite, the client is created on the first call.
+     *
+     * @return - shared client
+     */
+    public static TriangleAsyncClient shared() {
+        return Holder.INSTANCE;
+    }
+
+    /** This method creates a triangle with ';' as the separator.
+     *
+     * @param firstSide - a first side of the triangle
+     * @param secondSide - a second side of the triangle
+     * @param thirdSide - a third side of the triangle
+     * @return - future with the ID of the created triangle, it completes with an AssertionError if the service
+     * created a triangle with other sides
+     */
+    public CompletableFuture<String> createTriangle(double firstSide, double secondSide, double thirdSide) {
+        String payload = Helpers.payload(firstSide, secondSide, thirdSide);
+        HttpRequest request = request("").POST(HttpRequest.BodyPublishers.ofString(payload)).build();
+
+        return send(request, payload).thenApply(reply -> {
+            Triangle triangle = triangle(json(request, reply));
+
+            if (!triangle.hasSides(firstSide, secondSide, thirdSide)) {
+                throw new AssertionError("The sides of the created triangle are different from the specified ones: "
+                        + triangle);
+            }
+            return triangle.id();
+        });
+    }
+
+    /** This method returns the triangle.
+     *
+     * @param id - ID of the triangle
+     * @return - future with the triangle
+     */
+    public CompletableFuture<Triangle> getTriangle(String id) {
+        HttpRequest request = request(encode(id)).GET().build();
+
+        return send(request, null).thenApply(reply -> triangle(json(request, reply)));
+    }
+
+    /** This method returns the area of the triangle.
+     *
+     * @param id - ID of the triangle
+     * @return - future with the 'result' value of the response
+     */
+    public CompletableFuture<Double> getArea(String id) {
+        return result(id, "/area");
+    }
+
+    /** This method returns the perimeter of the triangle.
+     *
+     * @param id - ID of the triangle
+     * @return - future with the 'result' value of the response
+     */
+    public CompletableFuture<Double> getPerimeter(String id) {
+        return result(id, "/perimeter");
+    }
+
+    /** This method returns the IDs of all triangles of the personal token.
+     *
+     * @return - future with the list of IDs, an empty list if there are no triangles
+     */
+    public CompletableFuture<List<String>> getAllTriangles() {
+        HttpRequest request = request("all").GET().build();
+
+        return send(request, null).thenApply(reply -> {
+            List<String> ids = new ArrayList<>();
+            json(request, reply).forEach(triangle -> ids.add(triangle.get("id").asText()));
+
+            return ids;
+        });
+    }
+
+    /** This method streams the triangles of the personal token to the consumer while the body is being received,
+     *  so the memory needed doesn't depend on the number of triangles. The consumer is called on a thread of the
+     *  HTTP client; the hooks see only the status of the response, so unlike getAllTriangles() the Inventory isn't
+     *  reconciled, since the IDs aren't kept, and the body is checked by the AllTrianglesDecoder rather than by the
+     *  ResponseSchemas.
+     *
+     * @param consumer - consumer of the triangles
+     * @return - future with the number of triangles
+     */
+    public CompletableFuture<Integer> forEachTriangle(AllTrianglesDecoder.TriangleConsumer consumer) {
+        HttpRequest request = request("all").GET().build();
+
+        if (Cassette.isRecord() || Cassette.isReplay()) {
+            // the cassette keeps whole bodies, so the body is decoded after it's received
+            return send(request, null).thenApply(reply -> {
+                json(request, reply);
+                return decode(request, reply.stream(), consumer);
+            });
+        }
+        int[] count = new int[1];
+
+        return ExchangeHooks.run(ExchangeHooks.REPORTED, Exchange.of(request, null),
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()).thenApply(response -> {
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            return Reply.of(response, body.readAllBytes());
+                        }
+                        count[0] = decode(request, body, consumer);
+                        return Reply.streamed(response);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to read the triangles from " + request.uri(), e);
+                    }
+                }))
+                .thenApply(reply -> {
+                    if (reply.status() != 200) {
+                        json(request, reply);
+                    }
+                    return count[0];
+                });
+    }
+
+    /** This method deletes the triangle.
+     *
+     * @param id - ID of the triangle
+     * @return - future which completes when the triangle is deleted
+     */
+    public CompletableFuture<Void> deleteTriangle(String id) {
+        HttpRequest request = request(encode(id)).DELETE().build();
+
+        return send(request, null).thenAccept(reply -> json(request, reply));
+    }
+
+    private CompletableFuture<Double> result(String id, String metric) {
+        HttpRequest request = request(encode(id) + metric).GET().build();
+
+        return send(request, null).thenApply(reply -> json(request, reply).get("result").asDouble());
+    }
+
+    /** This method returns a request with the personal token leased to the calling thread. */
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("X-User", TenantPool.shared().current())
+                .header("Content-Type", "application/json; charset=UTF-8");
+    }
+
+    /** This method sends the request through the reported ExchangeHooks, the body is received as a whole. */
+    private CompletableFuture<Reply> send(HttpRequest request, String body) {
+        return ExchangeHooks.run(ExchangeHooks.REPORTED, Exchange.of(request, body),
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .thenApply(response -> Reply.of(response, response.body())));
+    }
+
+    /** This method returns the parsed body of a successful response.
+     *
+     * @throws IllegalStateException - if the status isn't 200
+     */
+    private static JsonNode json(HttpRequest request, Reply reply) {
+        if (reply.status() != 200) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + reply.status()
+                    + ": " + reply.text());
+        }
+        return reply.json();
+    }
+
+    private static int decode(HttpRequest request, InputStream body,
+                              AllTrianglesDecoder.TriangleConsumer consumer) {
+        try {
+            return AllTrianglesDecoder.decode(body, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the triangles from " + request.uri(), e);
+        }
+    }
+
+    private static Triangle triangle(JsonNode triangle) {
+        return new Triangle(triangle.path("id").asText(null),
+                triangle.path("firstSide").asDouble(Double.NaN),
+                triangle.path("secondSide").asDouble(Double.NaN),
+                triangle.path("thirdSide").asDouble(Double.NaN));
+    }
+
+    private static String encode(String id) {
+        return URLEncoder.encode(id, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /** Lazy holder, so the client is built only once and only when it's needed. */
+    private static final class Holder {
+
+        private static final TriangleAsyncClient INSTANCE = new TriangleAsyncClient(Target.baseUri());
+    }
+}
@@ -0,0 +1,182 @@
+package triangle_api;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.EncoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.JsonConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.path.json.config.JsonPathConfig;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/** This class holds everything which is needed to send a request to the Triangle Service: the RestAssured config
+ *  and the request specifications with the base URI, base path and a personal token. It's built once per JVM and
+ *  is shared by the helpers and the test classes, so every request goes through the same pooled HTTP client.
+ *  The ExchangeHooks, e.g. the validation and the timings, are run by a single filter of the specifications.
+ *
+ *  Connections are kept alive and reused between requests; since the pool creates all TLS sockets with the same
+ *  SSL context, TLS sessions are resumed instead of doing a full handshake for every new connection.
+ */
+@SuppressWarnings("deprecation") // RestAssured 4.x requires the legacy AbstractHttpClient API
+public final class TriangleClient {
+
+    /** The personal token of the suite, i.e. 'X-User' value, it's used if no other tokens were provided */
+    public static final String TOKEN = "9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564";
+
+    /** The system property with the max number of pooled connections per route, 20 by default */
+    public static final String MAX_PER_ROUTE_PROPERTY = "triangle.http.maxPerRoute";
+
+    /** The system property with the max time an idle connection is kept alive in milliseconds, 30000 by default */
+    public static final String KEEP_ALIVE_PROPERTY = "triangle.http.keepAliveMs";
+
+    /** The system property with the connect timeout in milliseconds, 10000 by default */
+    public static final String CONNECT_TIMEOUT_PROPERTY = "triangle.http.connectTimeoutMs";
+
+    /** The system property with the max time without any data from the server in milliseconds, 30000 by default */
+    public static final String SOCKET_TIMEOUT_PROPERTY = "triangle.http.socketTimeoutMs";
+
+    private static final Filter REPORTED = ExchangeHooks.filter(ExchangeHooks.REPORTED);
+
+    private static final Filter UNREPORTED = ExchangeHooks.filter(ExchangeHooks.UNREPORTED);
+
+    private final RestAssuredConfig config;
+
+    private final String baseUri;
+
+    private final Map<String, RequestSpecification> specs = new ConcurrentHashMap<>();
+
+    private final Map<String, RequestSpecification> unreportedSpecs = new ConcurrentHashMap<>();
+
+    private TriangleClient(String baseUri) {
+        this.baseUri = baseUri;
+
+        int maxPerRoute = Integer.getInteger(MAX_PER_ROUTE_PROPERTY, 20);
+        long keepAliveMs = Long.getLong(KEEP_ALIVE_PROPERTY, 30_000L);
+
+        SchemeRegistry schemeRegistry = SchemeRegistryFactory.createDefault();
+        PoolingClientConnectionManager connectionManager =
+                new PoolingClientConnectionManager(schemeRegistry, keepAliveMs, TimeUnit.MILLISECONDS);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setMaxTotal(maxPerRoute * 2);
+
+        DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager);
+        // let's not let a hung request block the suite: connecting, reading and waiting for a pooled connection
+        // are all limited
+        int connectTimeoutMs = connectTimeoutMs();
+        HttpConnectionParams.setConnectionTimeout(httpClient.getParams(), connectTimeoutMs);
+        HttpConnectionParams.setSoTimeout(httpClient.getParams(), socketTimeoutMs());
+        httpClient.getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, connectTimeoutMs);
+        // let's keep connections alive as long as the server allows but no longer than the configured limit
+        httpClient.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+        });
+        // RestAssured reads exactly Content-Length bytes and never closes the stream, so the connection would
+        // never return to the pool; a buffered entity makes the client release the connection right away
+        httpClient.addResponseInterceptor((response, context) -> {
+            if (response.getEntity() != null) {
+                response.setEntity(new BufferedHttpEntity(response.getEntity()));
+            }
+        });
+
+        JsonConfig jsonConfig = JsonConfig.jsonConfig()
+                .numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE);
+
+        config = RestAssuredConfig.config()
+                .jsonConfig(jsonConfig)
+                .encoderConfig(EncoderConfig
+                        .encoderConfig()
+                        .defaultContentCharset("UTF-8"))
+                .httpClient(HttpClientConfig
+                        .httpClientConfig()
+                        .reuseHttpClientInstance()
+                        .httpClientFactory(() -> httpClient));
+    }
+
+    /** This method returns the client shared by the whole suite, the client is created on the first call.
+     *
+     * @return - shared client
+     */
+    public static TriangleClient shared() {
+        return Holder.INSTANCE;
+    }
+
+    /** This method returns the request specification of the personal token leased to the current thread: base URI,
+     *  base path, config, the token and the filter of the reported ExchangeHooks.
+     *  The specification must be only merged into a new request, e.g. given(spec), and never modified.
+     *
+     * @return - request specification of the current thread
+     */
+    public RequestSpecification spec() {
+        return spec(TenantPool.shared().current());
+    }
+
+    /** This method returns the request specification which uses the shared HTTP client but the specified token.
+     *
+     * @param token - 'X-User' value
+     * @return - request specification
+     */
+    public RequestSpecification spec(String token) {
+        return specs.computeIfAbsent(token, this::specFor);
+    }
+
+    /** This method returns the request specification of the specified token with the unreported ExchangeHooks, for
+     *  requests which aren't a part of any test, e.g. the load runs: they leave out the Allure attachments, the cache,
+     *  the cassette, the budgets and the timings, so every request reaches the service; otherwise it's the same as
+     *  spec(token).
+     *
+     * @param token - 'X-User' value
+     * @return - request specification
+     */
+    public RequestSpecification unreportedSpec(String token) {
+        return unreportedSpecs.computeIfAbsent(token, key -> baseSpec(key)
+                .addFilter(UNREPORTED)
+                .build());
+    }
+
+    public RestAssuredConfig config() {
+        return config;
+    }
+
+    /** This method returns the connect timeout of the 'triangle.http.connectTimeoutMs' system property. */
+    static int connectTimeoutMs() {
+        return Integer.getInteger(CONNECT_TIMEOUT_PROPERTY, 10_000);
+    }
+
+    /** This method returns the socket timeout of the 'triangle.http.socketTimeoutMs' system property. */
+    static int socketTimeoutMs() {
+        return Integer.getInteger(SOCKET_TIMEOUT_PROPERTY, 30_000);
+    }
+
+    private RequestSpecBuilder baseSpec(String token) {
+        return new RequestSpecBuilder()
+                .addHeader("X-User", token)
+                .setBaseUri(baseUri)
+                .setBasePath(Target.BASE_PATH)
+                .setConfig(config);
+    }
+
+    private RequestSpecification specFor(String token) {
+        return baseSpec(token)
+                .addFilter(REPORTED)
+                .build();
+    }
+
+    /** Lazy holder, so the client is built only once and only when it's needed. */
+    private static final class Holder {
+
+        private static final TriangleClient INSTANCE = new TriangleClient(Target.baseUri());
+    }
+}
@@ -0,0 +1,408 @@
+package triangle_api.embedded;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/** This class is an in-process stand-in for the Triangle Service. It implements the same entry points
+ *  (POST /triangle, GET /triangle/all, GET and DELETE /triangle/{id}, GET /triangle/{id}/area and
+ *  GET /triangle/{id}/perimeter) with triangles stored separately for each 'X-User' token.
+ *
+ *  The stand-in follows the contract which the suite asserts rather than the known bugs of the remote service,
+ *  i.e. it rejects negative and degenerate sides, unknown payload keys, invalid IDs and the 11th triangle.
+ *  Any token in the UUID format is accepted as a valid personal token.
+ */
+public final class EmbeddedTriangleService {
+
+    /** The system property with the number of triangles allowed per user, 10 by default. */
+    public static final String QUOTA_PROPERTY = "triangle.embedded.quota";
+
+    /** The number of triangles the real service allows per user */
+    public static final int DEFAULT_QUOTA = 10;
+
+    private static final Pattern TOKEN = Pattern.compile("[0-9a-fA-F]{8}(-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final int quota;
+
+    private final Map<String, Map<String, double[]>> triangles = new ConcurrentHashMap<>();
+
+    private EmbeddedTriangleService(HttpServer server, ExecutorService executor, int quota) {
+        this.server = server;
+        this.executor = executor;
+        this.quota = quota;
+    }
+
+    /** This method starts the stand-in on a free loopback port with the quota from the 'triangle.embedded.quota'
+     *  system property.
+     *
+     * @return - running service
+     */
+    public static EmbeddedTriangleService start() {
+        return start(0, Integer.getInteger(QUOTA_PROPERTY, DEFAULT_QUOTA));
+    }
+
+    /** This method starts the stand-in on the specified loopback port.
+     *
+     * @param port - port to listen on, 0 - any free port
+     * @param quota - the number of triangles allowed per user
+     * @return - running service
+     */
+    public static EmbeddedTriangleService start(int port, int quota) {
+        // the server writes headers and body separately, so with Nagle's algorithm every response on a kept-alive
+        // connection would wait for the delayed ACK of the client (~40ms); the property is read once per JVM
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the embedded Triangle Service", e);
+        }
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-triangle-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EmbeddedTriangleService service = new EmbeddedTriangleService(server, executor, quota);
+
+        server.createContext("/triangle", service::handle);
+        server.setExecutor(executor);
+        server.start();
+
+        return service;
+    }
+
+    /** This method starts the stand-in as a separate process, so several JVMs (e.g. the suite and a load run) can
+     *  share it with -Dtriangle.target=http://127.0.0.1:port/. The stand-in runs until the process is stopped.
+     *
+     * @param args - optional port, 8080 by default
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        EmbeddedTriangleService service = start(port, Integer.getInteger(QUOTA_PROPERTY, DEFAULT_QUOTA));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(service::stop, "embedded-triangle-service-stop"));
+        System.out.println("The embedded Triangle Service is listening on " + service.baseUri());
+
+        // let's keep the process alive, the server threads are daemons
+        new CountDownLatch(1).await();
+    }
+
+    /** This method returns the base URI of the running stand-in, e.g. http://127.0.0.1:8080/ */
+    public String baseUri() {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + port() + "/";
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** This method stops the stand-in and drops all stored triangles. */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        triangles.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            byte[] body = readBody(exchange.getRequestBody());
+
+            String user = exchange.getRequestHeaders().getFirst("X-User");
+            if (user == null || !TOKEN.matcher(user).matches()) {
+                error(exchange, 401, "Unauthorized", "Unauthorized", path);
+                return;
+            }
+            List<String> segments = segments(path);
+
+            switch (segments.size()) {
+                case 0:
+                    if (method.equals("POST")) {
+                        create(exchange, user, body, path);
+                    } else {
+                        notSupported(exchange, method, path);
+                    }
+                    break;
+
+                case 1:
+                    if (segments.get(0).equals("all")) {
+                        if (method.equals("GET")) {
+                            all(exchange, user);
+                        } else {
+                            notSupported(exchange, method, path);
+                        }
+                    } else if (method.equals("GET")) {
+                        find(exchange, user, segments.get(0), path);
+                    } else if (method.equals("DELETE")) {
+                        delete(exchange, user, segments.get(0), path);
+                    } else {
+                        notSupported(exchange, method, path);
+                    }
+                    break;
+
+                case 2:
+                    String metric = segments.get(1);
+                    if (!metric.equals("area") && !metric.equals("perimeter")) {
+                        error(exchange, 404, "Not Found", "Not Found", path);
+                    } else if (method.equals("GET")) {
+                        result(exchange, user, segments.get(0), metric, path);
+                    } else {
+                        notSupported(exchange, method, path);
+                    }
+                    break;
+
+                default:
+                    error(exchange, 404, "Not Found", "Not Found", path);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void create(HttpExchange exchange, String user, byte[] body, String path) throws IOException {
+        if (body.length == 0) {
+            error(exchange, 400, "Bad Request", "Required request body is missing", path);
+            return;
+        }
+        JsonNode payload;
+        try {
+            payload = MAPPER.readTree(body);
+        } catch (JsonProcessingException e) {
+            error(exchange, 400, "Bad Request", "JSON parse error: " + e.getOriginalMessage(), path);
+            return;
+        }
+        if (payload == null || !payload.isObject()) {
+            error(exchange, 400, "Bad Request", "JSON parse error: an object is expected", path);
+            return;
+        }
+        double[] sides = parseSides(payload);
+        if (sides == null) {
+            error(exchange, 422, "Unprocessable Entity", "Cannot process input", path);
+            return;
+        }
+        String id = UUID.randomUUID().toString();
+        Map<String, double[]> userTriangles = userTriangles(user);
+
+        synchronized (userTriangles) {
+            if (userTriangles.size() >= quota) {
+                error(exchange, 422, "Unprocessable Entity", "Limit exceeded", path);
+                return;
+            }
+            userTriangles.put(id, sides);
+        }
+        send(exchange, 200, triangle(id, sides));
+    }
+
+    private void all(HttpExchange exchange, String user) throws IOException {
+        ArrayNode list = MAPPER.createArrayNode();
+        Map<String, double[]> userTriangles = userTriangles(user);
+
+        synchronized (userTriangles) {
+            userTriangles.forEach((id, sides) -> list.add(triangle(id, sides)));
+        }
+        send(exchange, 200, list);
+    }
+
+    private void find(HttpExchange exchange, String user, String id, String path) throws IOException {
+        double[] sides = lookup(user, id);
+
+        if (sides == null) {
+            error(exchange, 404, "Not Found", "Not Found", path);
+        } else {
+            send(exchange, 200, triangle(id, sides));
+        }
+    }
+
+    private void delete(HttpExchange exchange, String user, String id, String path) throws IOException {
+        Map<String, double[]> userTriangles = userTriangles(user);
+        double[] removed;
+
+        synchronized (userTriangles) {
+            removed = userTriangles.remove(id);
+        }
+        if (removed == null) {
+            error(exchange, 404, "Not Found", "Not Found", path);
+        } else {
+            send(exchange, 200, null);
+        }
+    }
+
+    private void result(HttpExchange exchange, String user, String id, String metric, String path)
+            throws IOException {
+        double[] sides = lookup(user, id);
+
+        if (sides == null) {
+            error(exchange, 404, "Not Found", "Not Found", path);
+            return;
+        }
+        double result;
+        if (metric.equals("perimeter")) {
+            result = sides[0] + sides[1] + sides[2];
+        } else {
+            double halfPerimeter = (sides[0] + sides[1] + sides[2]) / 2;
+
+            result = Math.sqrt(halfPerimeter
+                    * (halfPerimeter - sides[0])
+                    * (halfPerimeter - sides[1])
+                    * (halfPerimeter - sides[2]));
+        }
+        send(exchange, 200, MAPPER.createObjectNode().put("result", result));
+    }
+
+    private double[] lookup(String user, String id) {
+        Map<String, double[]> userTriangles = userTriangles(user);
+
+        synchronized (userTriangles) {
+            return userTriangles.get(id);
+        }
+    }
+
+    private Map<String, double[]> userTriangles(String user) {
+        return triangles.computeIfAbsent(user, key -> new LinkedHashMap<>());
+    }
+
+    /** This method parses the payload the same way the remote service does - the input is split with the
+     *  separator treated as a regular expression - and returns null if it doesn't describe a real triangle.
+     */
+    private static double[] parseSides(JsonNode payload) {
+        String separator = ";";
+        String input = null;
+
+        for (Iterator<Map.Entry<String, JsonNode>> it = payload.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+
+            if (!field.getValue().isTextual()) {
+                return null;
+            }
+            switch (field.getKey()) {
+                case "separator":
+                    separator = field.getValue().asText();
+                    break;
+                case "input":
+                    input = field.getValue().asText();
+                    break;
+                default:
+                    return null;
+            }
+        }
+        if (input == null || separator.isEmpty()) {
+            return null;
+        }
+        String[] values;
+        try {
+            values = Pattern.compile(separator).split(input);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        if (values.length != 3) {
+            return null;
+        }
+        double[] sides = new double[3];
+        for (int i = 0; i < 3; i++) {
+            try {
+                sides[i] = Double.parseDouble(values[i]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (!(sides[i] > 0) || Double.isInfinite(sides[i])) {
+                return null;
+            }
+        }
+        boolean sidesValid = sides[0] + sides[1] > sides[2]
+                && sides[0] + sides[2] > sides[1]
+                && sides[1] + sides[2] > sides[0];
+
+        return sidesValid ? sides : null;
+    }
+
+    private static List<String> segments(String rawPath) {
+        List<String> segments = new ArrayList<>();
+
+        for (String segment : rawPath.substring("/triangle".length()).split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static ObjectNode triangle(String id, double[] sides) {
+        return MAPPER.createObjectNode()
+                .put("id", id)
+                .put("firstSide", sides[0])
+                .put("secondSide", sides[1])
+                .put("thirdSide", sides[2]);
+    }
+
+    private static void notSupported(HttpExchange exchange, String method, String path) throws IOException {
+        error(exchange, 405, "Method Not Allowed", "Request method '" + method + "' not supported", path);
+    }
+
+    private static void error(HttpExchange exchange, int status, String error, String message, String path)
+            throws IOException {
+        send(exchange, status, MAPPER.createObjectNode()
+                .put("timestamp", Instant.now().toString())
+                .put("status", status)
+                .put("error", error)
+                .put("message", message)
+                .put("path", path));
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
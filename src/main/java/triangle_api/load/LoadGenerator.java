@@ -0,0 +1,268 @@
+package triangle_api.load;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import triangle_api.Inventory;
+import triangle_api.TenantPool;
+import triangle_api.TriangleClient;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/** This class drives a mix of requests against the Triangle Service and reports the latency percentiles and the
+ *  error rate of every entry point. It works with any target of the suite, e.g. -Dtriangle.target=embedded.
+ *
+ *  Every virtual user works with its own personal token, so it never touches the triangles of other users. Before
+ *  each request the user adjusts the operation to its inventory: a POST becomes a DELETE if the user has
+ *  Inventory.LIMIT triangles already, a request which needs an ID becomes a POST if the user has no triangles.
+ *
+ *  Two modes are supported:
+ *  closed - the users send the next request as soon as they receive the response to the previous one;
+ *  open - the requests are scheduled at the target rate regardless of the responses and taken by the first free
+ *  user, the latency is measured from the scheduled time, so the stalls of the service aren't hidden.
+ *
+ *  The run is configured with the system properties:
+ *  -Dtriangle.load.mode=closed|open (closed by default);
+ *  -Dtriangle.load.rps=number - target rate of the open loop (100 by default);
+ *  -Dtriangle.load.users=number - number of virtual users (the number of tokens of the TenantPool by default);
+ *  -Dtriangle.load.durationSec=number - duration of the run (30 by default);
+ *  -Dtriangle.load.mix=post=20,get=20,area=10,perimeter=10,all=20,delete=20 - relative weights of the requests.
+ */
+public final class LoadGenerator {
+
+    public static final String MODE_PROPERTY = "triangle.load.mode";
+
+    public static final String RATE_PROPERTY = "triangle.load.rps";
+
+    public static final String USERS_PROPERTY = "triangle.load.users";
+
+    public static final String DURATION_PROPERTY = "triangle.load.durationSec";
+
+    public static final String MIX_PROPERTY = "triangle.load.mix";
+
+    public static final String DEFAULT_MIX = "post=20,get=20,area=10,perimeter=10,all=20,delete=20";
+
+    /** The value the open loop puts into the schedule to stop a user */
+    private static final long STOP = Long.MIN_VALUE;
+
+    private final boolean open;
+
+    private final double rate;
+
+    private final List<String> tokens;
+
+    private final long durationNanos;
+
+    private final Operation[] operations;
+
+    private final int[] weights;
+
+    private final int totalWeight;
+
+    /** This constructor creates a load run, use fromProperties() to configure it with the system properties.
+     *
+     * @param open - true for the open loop, false for the closed loop
+     * @param rate - requests per second of the open loop, ignored by the closed loop
+     * @param tokens - personal tokens, one per virtual user
+     * @param durationNanos - duration of the run
+     * @param mix - relative weights of the operations, e.g. POST -> 20
+     */
+    public LoadGenerator(boolean open, double rate, List<String> tokens, long durationNanos,
+                         Map<Operation, Integer> mix) {
+        if (open && rate <= 0) {
+            throw new IllegalArgumentException("The rate of the open loop must be > 0: " + rate);
+        }
+        if (tokens.isEmpty() || durationNanos <= 0) {
+            throw new IllegalArgumentException("At least one token and a positive duration are required");
+        }
+        this.open = open;
+        this.rate = rate;
+        this.tokens = List.copyOf(tokens);
+        this.durationNanos = durationNanos;
+
+        List<Operation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int totalWeight = 0;
+
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("The weight of " + entry.getKey() + " must be >= 0");
+            }
+            if (entry.getValue() > 0) {
+                totalWeight += entry.getValue();
+                operations.add(entry.getKey());
+                weights.add(totalWeight);
+            }
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The mix has no operations: " + mix);
+        }
+        this.operations = operations.toArray(new Operation[0]);
+        this.weights = weights.stream().mapToInt(Integer::intValue).toArray();
+        this.totalWeight = totalWeight;
+    }
+
+    /** This method creates a load run configured with the 'triangle.load.*' system properties.
+     *
+     * @return - load run
+     */
+    public static LoadGenerator fromProperties() {
+        String mode = System.getProperty(MODE_PROPERTY, "closed").trim();
+        if (!mode.equals("open") && !mode.equals("closed")) {
+            throw new IllegalStateException("Unexpected " + MODE_PROPERTY + " value: " + mode
+                    + ", expected 'open' or 'closed'");
+        }
+        List<String> tokens = TenantPool.shared().tokens();
+        int users = Integer.getInteger(USERS_PROPERTY, tokens.size());
+
+        if (users < 1 || users > tokens.size()) {
+            throw new IllegalStateException("Every virtual user needs its own personal token, " + users
+                    + " users requested but " + tokens.size() + " tokens available, provide more tokens with -D"
+                    + TenantPool.TOKENS_FILE_PROPERTY + " or -D" + TenantPool.TENANTS_PROPERTY + " (embedded only)");
+        }
+        return new LoadGenerator(mode.equals("open"),
+                Double.parseDouble(System.getProperty(RATE_PROPERTY, "100")),
+                tokens.subList(0, users),
+                TimeUnit.SECONDS.toNanos(Long.getLong(DURATION_PROPERTY, 30L)),
+                parseMix(System.getProperty(MIX_PROPERTY, DEFAULT_MIX)));
+    }
+
+    /** This method parses the mix of operations, e.g. 'post=20,get=20,all=10'.
+     *
+     * @param mix - comma separated operations with their weights
+     * @return - weights of the operations
+     */
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Unexpected mix entry '" + entry + "', expected e.g. 'post=20'");
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    public static void main(String[] args) {
+        LoadReport report = fromProperties().run();
+        System.out.print(report);
+    }
+
+    /** This method runs the load and waits until it's finished.
+     *
+     * @return - latencies and errors per entry point
+     */
+    public LoadReport run() {
+        BlockingQueue<Long> schedule = new LinkedBlockingQueue<>();
+        List<LoadReport.Recorder> recorders = new ArrayList<>();
+        List<Thread> users = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+
+        for (String token : tokens) {
+            LoadReport.Recorder recorder = new LoadReport.Recorder();
+            Thread user = new Thread(() -> user(token, schedule, deadline, recorder),
+                    "triangle-load-user-" + users.size());
+            user.setDaemon(true);
+            recorders.add(recorder);
+            users.add(user);
+            user.start();
+        }
+        if (open) {
+            long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+
+            // let's compute every time from the start, so a late wake-up doesn't shift the rest of the schedule
+            for (long i = 0, next = start; next < deadline; next = start + ++i * periodNanos) {
+                LockSupport.parkNanos(next - System.nanoTime());
+                schedule.add(next);
+            }
+            for (int i = 0; i < users.size(); i++) {
+                schedule.add(STOP);
+            }
+        }
+        for (Thread user : users) {
+            try {
+                user.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the load run", e);
+            }
+        }
+        // the open loop may finish much later than planned if the service can't keep up with the rate
+        LoadReport report = new LoadReport(description(), System.nanoTime() - start);
+        recorders.forEach(report::merge);
+
+        return report;
+    }
+
+    private void user(String token, BlockingQueue<Long> schedule, long deadline, LoadReport.Recorder recorder) {
+        RequestSpecification spec = TriangleClient.shared().unreportedSpec(token);
+        Inventory inventory = Inventory.of(token);
+
+        while (true) {
+            long scheduled;
+            if (open) {
+                try {
+                    scheduled = schedule.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (scheduled == STOP) {
+                    return;
+                }
+            } else {
+                scheduled = System.nanoTime();
+                if (scheduled >= deadline) {
+                    return;
+                }
+            }
+            Operation operation = inventory.needsReconcile() ? Operation.ALL : next(inventory.count());
+            List<String> ids = operation.needsId() ? inventory.ids() : List.of();
+            String id = ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+
+            try {
+                Response response = operation.send(spec, id);
+                recorder.response(operation, System.nanoTime() - scheduled, response.getStatusCode());
+            } catch (RuntimeException | AssertionError e) {
+                // e.g. a response which doesn't match its schema
+                recorder.failure(operation, e);
+            }
+        }
+    }
+
+    private Operation next(int triangles) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        Operation operation = operations[operations.length - 1];
+
+        for (int i = 0; i < weights.length; i++) {
+            if (value < weights[i]) {
+                operation = operations[i];
+                break;
+            }
+        }
+        if (operation == Operation.POST && triangles >= Inventory.LIMIT) {
+            return Operation.DELETE;
+        }
+        if (operation.needsId() && triangles == 0) {
+            return Operation.POST;
+        }
+        return operation;
+    }
+
+    private String description() {
+        return open
+                ? String.format("Open loop, %.1f rps target, %d users", rate, tokens.size())
+                : String.format("Closed loop, %d users", tokens.size());
+    }
+}
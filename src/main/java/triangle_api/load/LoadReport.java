@@ -0,0 +1,143 @@
+package triangle_api.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/** This class collects the latencies and errors of a load run per entry point. Every virtual user records into its
+ *  own Recorder, so there's no contention between them, and the recorders are merged into the report at the end.
+ *
+ *  The latencies are recorded in microseconds; in the open loop they're measured from the moment the request was
+ *  scheduled rather than sent, so the time a request waited for a free user is included (coordinated omission).
+ */
+public final class LoadReport {
+
+    private final String description;
+
+    private final long durationNanos;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Map<String, Integer>> errors = new EnumMap<>(Operation.class);
+
+    LoadReport(String description, long durationNanos) {
+        this.description = description;
+        this.durationNanos = durationNanos;
+    }
+
+    /** This method returns the latencies of the entry point in microseconds, an empty histogram if nothing was sent.
+     */
+    public Histogram latencies(Operation operation) {
+        return latencies.computeIfAbsent(operation, key -> new Histogram(3));
+    }
+
+    /** This method returns the number of requests to the entry point, including the failed ones. */
+    public long count(Operation operation) {
+        return latencies(operation).getTotalCount() + errorCount(operation, false);
+    }
+
+    /** This method returns the number of failed requests to the entry point, i.e. non-200 responses and exceptions. */
+    public long errors(Operation operation) {
+        return errorCount(operation, true);
+    }
+
+    /** This method returns the number of failed requests to all entry points. */
+    public long errors() {
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            total += errors(operation);
+        }
+        return total;
+    }
+
+    /** This method returns the number of requests to all entry points. */
+    public long count() {
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            total += count(operation);
+        }
+        return total;
+    }
+
+    synchronized void merge(Recorder recorder) {
+        recorder.latencies.forEach((operation, histogram) -> latencies(operation).add(histogram));
+        recorder.errors.forEach((operation, reasons) -> reasons.forEach((reason, number) ->
+                errors.computeIfAbsent(operation, key -> new TreeMap<>()).merge(reason, number, Integer::sum)));
+    }
+
+    /** This method returns the report as a table with a row per entry point, the latencies are in milliseconds. */
+    @Override
+    public String toString() {
+        double seconds = durationNanos / 1e9;
+        StringBuilder report = new StringBuilder();
+
+        report.append(String.format("%s: %d requests in %.1f s, %.1f rps, %.2f%% errors%n",
+                description, count(), seconds, count() / seconds, percent(errors(), count())));
+        report.append(String.format("%-30s %8s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "p50", "p90", "p99", "p99.9", "max"));
+
+        for (Operation operation : Operation.values()) {
+            if (count(operation) == 0) {
+                continue;
+            }
+            Histogram histogram = latencies(operation);
+
+            report.append(String.format("%-30s %8d %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation, count(operation), percent(errors(operation), count(operation)),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+        errors.forEach((operation, reasons) -> report.append(String.format("%-30s errors: %s%n", operation, reasons)));
+
+        return report.toString();
+    }
+
+    private long errorCount(Operation operation, boolean withResponses) {
+        long total = 0;
+        for (Map.Entry<String, Integer> reason : errors.getOrDefault(operation, Map.of()).entrySet()) {
+            // the failed responses are in the histogram already, only the exceptions have no latency
+            if (withResponses || !reason.getKey().startsWith("HTTP ")) {
+                total += reason.getValue();
+            }
+        }
+        return total;
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /** This class collects the results of a single virtual user, it's not thread-safe. */
+    static final class Recorder {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+        private final Map<Operation, Map<String, Integer>> errors = new EnumMap<>(Operation.class);
+
+        void response(Operation operation, long latencyNanos, int status) {
+            latencies.computeIfAbsent(operation, key -> new Histogram(3))
+                    .recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            if (status != 200) {
+                error(operation, "HTTP " + status);
+            }
+        }
+
+        void failure(Operation operation, Throwable error) {
+            error(operation, error.getClass().getSimpleName());
+        }
+
+        private void error(Operation operation, String reason) {
+            errors.computeIfAbsent(operation, key -> new TreeMap<>()).merge(reason, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package triangle_api.load;
+
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import triangle_api.Helpers;
+
+import static io.restassured.RestAssured.given;
+
+/** This enum defines the requests a load run sends, they have the same shape as the requests of the Helpers. */
+public enum Operation {
+
+    POST("POST", "/triangle", false),
+    GET("GET", "/triangle/{id}", true),
+    AREA("GET", "/triangle/{id}/area", true),
+    PERIMETER("GET", "/triangle/{id}/perimeter", true),
+    ALL("GET", "/triangle/all", false),
+    DELETE("DELETE", "/triangle/{id}", true);
+
+    private final String method;
+
+    private final String route;
+
+    private final boolean needsId;
+
+    Operation(String method, String route, boolean needsId) {
+        this.method = method;
+        this.route = route;
+        this.needsId = needsId;
+    }
+
+    /** This method returns true if the request is sent to an existing triangle. */
+    public boolean needsId() {
+        return needsId;
+    }
+
+    /** This method sends the request and returns the response whatever its status is; the body is still validated
+     *  against its schema by the ResponseSchemas hook of the unreported spec, unless the validation is turned off
+     *  with -Dtriangle.schema.validation=false.
+     *
+     * @param spec - request specification of the virtual user
+     * @param id - ID of an existing triangle, ignored by the requests which don't need it
+     * @return - response of the service
+     */
+    Response send(RequestSpecification spec, String id) {
+        switch (this) {
+            case POST:
+                double[] sides = Helpers.genSides(Helpers.Strategy.VALID_VALUES, "#.##", 100);
+                return given().spec(spec).contentType(ContentType.JSON)
+                        .body(Helpers.payload(sides[0], sides[1], sides[2]))
+                        .post("/");
+            case GET:
+                return given().spec(spec).contentType(ContentType.JSON).pathParam("triangleID", id)
+                        .get("/{triangleID}");
+            case AREA:
+                return given().spec(spec).contentType(ContentType.JSON).pathParam("triangleID", id)
+                        .get("/{triangleID}/area");
+            case PERIMETER:
+                return given().spec(spec).contentType(ContentType.JSON).pathParam("triangleID", id)
+                        .get("/{triangleID}/perimeter");
+            case ALL:
+                return given().spec(spec).contentType(ContentType.JSON)
+                        .get("/all");
+            case DELETE:
+                return given().spec(spec).contentType(ContentType.JSON).pathParam("triangleID", id)
+                        .delete("/{triangleID}");
+            default:
+                throw new IllegalStateException("Unexpected operation: " + this);
+        }
+    }
+
+    /** This method returns the entry point in the same form as triangle_api.Endpoint, e.g. 'GET /triangle/{id}/area'.
+     */
+    @Override
+    public String toString() {
+        return method + " " + route;
+    }
+}
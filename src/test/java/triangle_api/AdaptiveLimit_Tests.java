@@ -0,0 +1,118 @@
+package triangle_api;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public class AdaptiveLimit_Tests {
+
+    /** The round-trip time of a request at no load */
+    private static final long RTT = 1_000_000;
+
+    /** This is Data Provider for the release_overload_Test, it returns the outcomes of an overloaded service. */
+    @DataProvider(name = "getOverloads")
+    public static Object[][] getOverloads() {
+        return new Object[][]{{429}, {500}, {503}, {EndpointTimings.NO_RESPONSE}};
+    }
+
+
+    @Test(description = "Verification that the limit grows only while it's used up")
+    @Description("This test releases a request which ran below the limit and verifies that the limit stays the " +
+            "same, then releases a request which ran at the full limit and verifies that the limit grows by one " +
+            "per limit of requests.")
+    public void release_additiveIncrease_Test() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 32);
+
+        limit.acquire();
+        limit.release(System.nanoTime(), RTT, 200);
+        Assert.assertEquals(limit(limit), 2.0, "The limit grew though it wasn't used up.");
+
+        limit.acquire();
+        limit.acquire();
+        limit.release(System.nanoTime(), RTT, 200);
+        Assert.assertEquals(limit(limit), 2.5, "The limit didn't grow by 1 / limit at the full limit.");
+    }
+
+
+    @Test(description = "Verification that an overload halves the limit", dataProvider = "getOverloads")
+    @Description("This test releases a request with the status of an overloaded service, i.e. 429, 5xx or no " +
+            "response at all, and verifies that the limit is cut by half.")
+    public void release_overload_Test(int status) {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 32);
+
+        limit.acquire();
+        limit.release(System.nanoTime(), RTT, status);
+
+        Assert.assertEquals(limit(limit), 4.0, "The limit wasn't halved by the status " + status + ".");
+        Assert.assertEquals(limit.metrics().get("overloads"), 1L);
+    }
+
+
+    @Test(description = "Verification that the limit is cut only once per window")
+    @Description("This test fails two requests which were sent before the first decrease and verifies that only " +
+            "the first of them cuts the limit, then fails a request sent after the decrease and verifies that it " +
+            "cuts the limit again.")
+    public void release_oneDecreasePerWindow_Test() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 32);
+        long sentAt = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            limit.acquire();
+        }
+        limit.release(sentAt, RTT, 503);
+        limit.release(sentAt, RTT, 503);
+        Assert.assertEquals(limit(limit), 4.0, "The requests of the same window cut the limit twice.");
+
+        // the decrease happened no later than now, so the request is sent in the next window
+        limit.release(System.nanoTime() + 1, RTT, 503);
+        Assert.assertEquals(limit(limit), 2.0, "The request of the next window didn't cut the limit.");
+        Assert.assertEquals(limit.metrics().get("decreases"), 2L);
+    }
+
+
+    @Test(description = "Verification that a rising latency cuts the limit in proportion to the gradient")
+    @Description("This test releases requests at the no-load latency, then a request ten times slower, and " +
+            "verifies that the limit is cut by the gradient, i.e. less than by half, though no request failed.")
+    public void release_gradientCut_Test() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 32);
+
+        for (int i = 0; i < 3; i++) {
+            limit.acquire();
+            limit.release(System.nanoTime(), RTT, 200);
+        }
+        Assert.assertEquals(limit(limit), 8.0, "The limit changed at the no-load latency.");
+
+        limit.acquire();
+        limit.release(System.nanoTime(), 10 * RTT, 200);
+
+        // the smoothed round-trip time is 1 + 0.2 * 9 = 2.8 ms, so the gradient is 2 * 1.001 / 2.8
+        Assert.assertEquals(limit(limit), 8 * 2 * 1.001 / 2.8, 1e-9, "The limit wasn't cut by the gradient.");
+        Assert.assertEquals(limit.metrics().get("overloads"), 0L);
+    }
+
+
+    @Test(description = "Verification that a released place admits a waiting request")
+    @Description("This test takes the only place of the limit, verifies that the next request waits for it and " +
+            "is admitted as soon as the first request is released.")
+    public void release_admitsWaiting_Test() {
+        AdaptiveLimit limit = new AdaptiveLimit(1, 1);
+
+        CompletableFuture<Void> first = limit.acquire();
+        CompletableFuture<Void> second = limit.acquire();
+
+        Assert.assertTrue(first.isDone(), "The first request didn't get the free place.");
+        Assert.assertFalse(second.isDone(), "The second request got a place beyond the limit.");
+
+        limit.release(System.nanoTime(), RTT, 200);
+
+        Assert.assertTrue(second.isDone(), "The waiting request wasn't admitted by the release.");
+        Assert.assertEquals(limit.metrics().get("inFlight"), 1);
+    }
+
+    private static double limit(AdaptiveLimit limit) {
+        return (Double) limit.metrics().get("limit");
+    }
+}
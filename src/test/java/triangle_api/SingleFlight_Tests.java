@@ -0,0 +1,147 @@
+package triangle_api;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class SingleFlight_Tests {
+
+    @Test(description = "Verification that the concurrent calls of the same key share a single load")
+    @Description("This test starts a load which waits for a signal, calls the same key of the same generation on " +
+            "another thread, and verifies that the second call waits for the first load and gets its value rather " +
+            "than loading on its own.")
+    public void get_coalesced_Test() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> flight.get("token", 0, blocking(loading, release, () -> {
+                loads.incrementAndGet();
+                return "first";
+            })));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS), "The first load didn't start.");
+
+            Future<String> second = executor.submit(() -> flight.get("token", 0, () -> {
+                loads.incrementAndGet();
+                return "second";
+            }));
+            awaitCounter(flight, "coalesced", 1);
+            release.countDown();
+
+            Assert.assertEquals(first.get(5, TimeUnit.SECONDS), "first");
+            Assert.assertEquals(second.get(5, TimeUnit.SECONDS), "first", "The second call didn't share the load.");
+            Assert.assertEquals(loads.get(), 1, "The value was loaded more than once.");
+            Assert.assertEquals(flight.counters().get("loads").longValue(), 1L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test(description = "Verification that a load of another generation isn't shared")
+    @Description("This test starts a load of the generation 0 which waits for a signal, calls the same key of the " +
+            "generation 1 meanwhile, and verifies that the second call loads its own value without waiting.")
+    public void get_generationMismatch_Test() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> flight.get("token", 0,
+                    blocking(loading, release, () -> "before the change")));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS), "The first load didn't start.");
+
+            // the first load is still in flight, so a shared load would block this thread
+            Assert.assertEquals(flight.get("token", 1, () -> "after the change"), "after the change",
+                    "The call got the value of an older generation.");
+            release.countDown();
+
+            Assert.assertEquals(first.get(5, TimeUnit.SECONDS), "before the change");
+            Assert.assertEquals(flight.counters().get("loads").longValue(), 2L);
+            Assert.assertEquals(flight.counters().get("coalesced").longValue(), 0L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test(description = "Verification that the error of a load is passed to every caller and isn't kept")
+    @Description("This test starts a load which fails after a signal, calls the same key meanwhile, and verifies " +
+            "that both calls get the same exception and that the next call loads the value again.")
+    public void get_errorPropagation_Test() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(60_000);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException error = new IllegalStateException("The load failed");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> flight.get("token", 0, blocking(loading, release, () -> {
+                throw error;
+            })));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS), "The first load didn't start.");
+
+            Future<String> second = executor.submit(() -> flight.get("token", 0, () -> "second"));
+            awaitCounter(flight, "coalesced", 1);
+            release.countDown();
+
+            Assert.assertSame(failure(first), error, "The loading call didn't get the error of its load.");
+            Assert.assertSame(failure(second), error, "The waiting call didn't get the error of the shared load.");
+
+            // the failed load isn't kept even within the TTL
+            Assert.assertEquals(flight.get("token", 0, () -> "again"), "again");
+            Assert.assertEquals(flight.counters().get("loads").longValue(), 2L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /** This method returns a load which signals that it started and waits for the release before it finishes. */
+    private static Supplier<String> blocking(CountDownLatch loading, CountDownLatch release, Supplier<String> load) {
+        return () -> {
+            loading.countDown();
+            try {
+                if (!release.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("The load wasn't released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The load was interrupted", e);
+            }
+            return load.get();
+        };
+    }
+
+    /** This method waits until the counter of the flight reaches the value, e.g. until a call waits for a load. */
+    private static void awaitCounter(SingleFlight<?, ?> flight, String counter, long value)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (flight.counters().get(counter) < value) {
+            Assert.assertTrue(System.nanoTime() < deadline, "The " + counter + " counter didn't reach " + value);
+            Thread.sleep(1);
+        }
+    }
+
+    private static Throwable failure(Future<String> call) throws Exception {
+        try {
+            call.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("The call didn't fail.");
+    }
+}
@@ -2,13 +2,18 @@ package triangle_api_tests;
 
 import io.qameta.allure.Description;
 import io.qameta.allure.Issue;
-import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
-import org.testng.Reporter;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import triangle_api.AsyncReporter;
+import triangle_api.Inventory;
+import triangle_api.RequiredState;
+import triangle_api.RestoreTenant;
 import triangle_api.SetUp;
+import triangle_api.TenantState;
+import triangle_api.Triangle;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -110,73 +115,54 @@ public class AddTriangle_Tests extends SetUp {
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 200 verification for an attempt to add a new triangle with valid sides",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle with sides values received from the 'validSides' data provider" +
             " and verify that the response has the Code 200, same sides values as were specified, and the id.")
     public void addTriangle_validSides_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
         Response response =
-                given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
+                given(spec())
                         .contentType(ContentType.JSON)
                         .body(payload)
                 .when()
                        .post("/")
                 .then()
-                       .log()
-                       .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
-                        .body("firstSide", equalTo(Double.valueOf(firstSide)),
-                                "secondSide", equalTo(Double.valueOf(secondSide)),
-                                "thirdSide", equalTo(Double.valueOf(thirdSide)) )
                         .extract()
                         .response();
 
-        String id = response.path("id");
+        Triangle triangle = Triangle.of(response);
+        Assert.assertTrue(triangle.hasSides(firstSide, secondSide, thirdSide),
+                "The sides of the created triangle are different from the specified ones: " + triangle);
 
-        Reporter.log("A new triangle with sides: "+firstSide+", "+secondSide+", and "+thirdSide+" " +
+        String id = triangle.id();
+
+        AsyncReporter.log("A new triangle with sides: "+firstSide+", "+secondSide+", and "+thirdSide+" " +
                 "was successfully added. Its ID is: "+id, true);
     }
 
 
     @Issue("I assume the service shouldn't accept negative values as sides though " +
             "it does take the value by module -> BUG/FEATURE")
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 422 verification for an attempt to add a new triangle with negative values of the valid sides",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle with negative values of sides and verify that the response has " +
             "the Code 422.")
     public void addTriangle_negativeSides_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(422);
     }
@@ -184,61 +170,41 @@ public class AddTriangle_Tests extends SetUp {
 
     @Issue("I assume the service should verify that a sum of any two specified sides is not equal to the third one, " +
             "currently any value combinations are allowed. -> BUG")
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 422 verification for an attempt to add a new triangle which sum of some two sides equals " +
             "to the third one",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle which sum of some two sides equals to the third one and verify " +
             "that the response has the Code 422.")
     public void addTriangle_sumSides_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(422);
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 422 verification for an attempt to add a new triangle with the sides where the " +
             "sum of any two is less than the third one.",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle with the sides where the sum of any two is less than the " +
             "third one and verify that the response has the Code 422.")
     public void addTriangle_invalidSides_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(422)
                 .body("error", equalTo("Unprocessable Entity"),
@@ -246,31 +212,21 @@ public class AddTriangle_Tests extends SetUp {
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 422 verification for an attempt to add a new triangle with the sides where one of them " +
             "or all of them are zero.",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle with the sides where one of them or all of them have a zero " +
             "value and verify that the response has the Code 422.")
     public void addTriangle_SidesWithZero_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(422)
                 .body("error", equalTo("Unprocessable Entity"),
@@ -278,126 +234,100 @@ public class AddTriangle_Tests extends SetUp {
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 200 verification for an attempt to add a new triangle with equilateral sides",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle with equilateral sides and verify that the response " +
             "has the Code 200, same sides values as were specified, and the id.")
     public void addTriangle_equilateralSides_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
         Response response =
-                given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
+                given(spec())
                         .contentType(ContentType.JSON)
                         .body(payload)
                 .when()
                         .post("/")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
-                        .body("firstSide", equalTo(Double.valueOf(firstSide)),
-                                "secondSide", equalTo(Double.valueOf(secondSide)),
-                                "thirdSide", equalTo(Double.valueOf(thirdSide)) )
                         .extract()
                         .response();
 
-        String id = response.path("id");
+        Triangle triangle = Triangle.of(response);
+        Assert.assertTrue(triangle.hasSides(firstSide, secondSide, thirdSide),
+                "The sides of the created triangle are different from the specified ones: " + triangle);
+
+        String id = triangle.id();
 
-        Reporter.log("A new equilateral triangle with sides: "+firstSide+", "+secondSide+", and "+thirdSide+" " +
+        AsyncReporter.log("A new equilateral triangle with sides: "+firstSide+", "+secondSide+", and "+thirdSide+" " +
                 "was successfully added. Its ID is: "+id, true);
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 200 verification for an attempt to add a new triangle with isosceles sides",
             dataProvider = "getSides")
     @Description("This test tries to add a new triangle with isosceles sides and verify that the response " +
             "has the Code 200, same sides values as were specified, and the id.")
     public void addTriangle_isoscelesSides_Test(double firstSide, double secondSide, double thirdSide) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
 
         Response response =
-                given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
+                given(spec())
                         .contentType(ContentType.JSON)
                         .body(payload)
                 .when()
                         .post("/")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
-                        .body("firstSide", equalTo(Double.valueOf(firstSide)),
-                                "secondSide", equalTo(Double.valueOf(secondSide)),
-                                "thirdSide", equalTo(Double.valueOf(thirdSide)) )
                         .extract()
                         .response();
 
-        String id = response.path("id");
+        Triangle triangle = Triangle.of(response);
+        Assert.assertTrue(triangle.hasSides(firstSide, secondSide, thirdSide),
+                "The sides of the created triangle are different from the specified ones: " + triangle);
 
-        Reporter.log("A new isosceles triangle with sides: "+firstSide+", "+secondSide+", and "+thirdSide+" " +
+        String id = triangle.id();
+
+        AsyncReporter.log("A new isosceles triangle with sides: "+firstSide+", "+secondSide+", and "+thirdSide+" " +
                 "was successfully added. Its ID is: "+id, true);
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 200 verification for an attempt to add a new triangle with no separator in the payload")
     @Description("This test tries to add a new triangle without 'separator' key in the payload and verify that the " +
             "response has the Code 200, same sides values as were specified, and the id.")
     public void addTriangle_Payload_noSeparator_Test() {
-        // let's check if there's a room for a  one new triangles and if not, delete one existed triangle
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteOneTriangle(existedTriangles.get(0));
-        }
         // let's get a valid sides for a triangle
         double[] sides = genSides(VALID_VALUES, "#", 10);
         // specify the payload without 'separator' part
         String payload = "{\"input\": \""+sides[0]+";"+sides[1]+";"+sides[2]+"\"}";
 
         Response response =
-                given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
+                given(spec())
                         .contentType(ContentType.JSON)
                         .body(payload)
                         .when()
                         .post("/")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
-                        .body("firstSide", equalTo(Double.valueOf(sides[0])),
-                                "secondSide", equalTo(Double.valueOf(sides[1])),
-                                "thirdSide", equalTo(Double.valueOf(sides[2])) )
                         .extract()
                         .response();
 
-        String id = response.path("id");
+        Triangle triangle = Triangle.of(response);
+        Assert.assertTrue(triangle.hasSides(sides[0], sides[1], sides[2]),
+                "The sides of the created triangle are different from the specified ones: " + triangle);
+
+        String id = triangle.id();
 
-        Reporter.log("A new triangle without separator in the payload was successfully added. " +
+        AsyncReporter.log("A new triangle without separator in the payload was successfully added. " +
                 "\nIt has the following sides: "+sides[0]+", "+sides[1]+", and "+sides[2]+" " +
                 "and its ID is: "+id, true);
     }
@@ -422,28 +352,18 @@ public class AddTriangle_Tests extends SetUp {
         };
     }
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 422 verification for an attempt to add a new triangle with invalid separator values " +
             "in the payload", dataProvider = "getInvalidSeparatorValues")
     @Description("This test tries to add a new triangle with different invalid separator values in the payload and " +
             "verify that the response has the Code 422.")
     public void addTriangle_Payload_invalidSeparatorValues_Test(String payload) {
-        // let's check if there's a room for a  one new triangles and if not, delete one existed triangle
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteOneTriangle(existedTriangles.get(0));
-        }
-
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(422)
                 .contentType(ContentType.JSON)
@@ -465,17 +385,12 @@ public class AddTriangle_Tests extends SetUp {
         };
     }
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 200 verification for an attempt to add a new triangle with a custom separator values " +
             "in the payload", dataProvider = "getSeparatorValues")
     @Description("This test tries to add a new triangle with different valid separator values in the payload and " +
             "verify that the response has the Code 200, same sides values as were specified, and the id.")
     public void addTriangle_Payload_validSeparatorValues_Test(String separator) {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangle
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
         // let's get a valid sides for a triangle
         double[] sides = genSides(VALID_VALUES, "#", 10);
 
@@ -484,27 +399,24 @@ public class AddTriangle_Tests extends SetUp {
                 "\""+sides[0]+""+separator+""+sides[1]+""+separator+""+sides[2]+"\"}";
 
         Response response =
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(200)
                 .contentType(ContentType.JSON)
-                .body("firstSide", equalTo(Double.valueOf(sides[0])),
-                        "secondSide", equalTo(Double.valueOf(sides[1])),
-                        "thirdSide", equalTo(Double.valueOf(sides[2])) )
                 .extract()
                 .response();
 
-        String id = response.path("id");
-        Reporter.log("The triangle with '"+separator+"' in the payload was successfully created. " +
+        Triangle triangle = Triangle.of(response);
+        Assert.assertTrue(triangle.hasSides(sides[0], sides[1], sides[2]),
+                "The sides of the created triangle are different from the specified ones: " + triangle);
+
+        String id = triangle.id();
+        AsyncReporter.log("The triangle with '"+separator+"' in the payload was successfully created. " +
                 "\nIt has sides "+sides[0]+", "+sides[1]+", and "+sides[2]+" and ID: " +id, true);
     }
 
@@ -528,28 +440,18 @@ public class AddTriangle_Tests extends SetUp {
             "or it's a bug to fix.")
     @Issue("#2: A payload without any keys is accepted e.i. '{5;6;8}' it's either intentional just not described " +
             "or it's a bug.")
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 400 verification for an attempt to add a new triangle with a custom separator values " +
             "in the payload", dataProvider = "getCorruptedPayload")
     @Description("This test tries to add a new triangle with different valid separator values in the payload and " +
             "verify that the response has the Code 400, same sides values as were specified, and the id.")
     public void addTriangle_Payload_corruptedValues_Test(String payload) {
-        // let's check if there's a room for a  one new triangles and if not, delete one existed triangle
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteOneTriangle(existedTriangles.get(0));
-        }
-
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(400)
                 .contentType(ContentType.JSON)
@@ -558,38 +460,33 @@ public class AddTriangle_Tests extends SetUp {
 
 
     @Issue("Unlike it was specified, the service allows to add 11 triangles, not 10 -> BUG")
+    @RestoreTenant
+    @RequiredState(TenantState.EMPTY)
     @Test(description = "Code 422 verification for an attempt to add the 11th triangle in a row")
     @Description("This test tries to add 11 new triangles in a row and verify that the 11th will be rejected " +
             "and the response will show code 422.")
     public void addTriangles_aboveLimit_Test() {
-        // let's delete all existed triangles to add 11 new ones
-        deleteAllTriangles(getAllTriangles());
-
         int responseCode = 200;
         // let's try to add a new 11 triangles in a row
-        for (int i = 0; i < 11; i++) {
-            // for 11th triangle set the expected response code to '422'
-            if (i == 10) {
+        for (int i = 0; i <= Inventory.LIMIT; i++) {
+            // for the triangle above the limit set the expected response code to '422'
+            if (i == Inventory.LIMIT) {
                 responseCode = 422;
             }
             double[] sides = genSides(VALID_VALUES,"#", 100);
 
             String payload = "{\"separator\": \";\", \"input\": \""+sides[0]+";"+sides[1]+";"+sides[2]+"\"}";
 
-            given()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
+            given(spec())
                     .contentType(ContentType.JSON)
                     .body(payload)
             .when()
                     .post("/")
             .then()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
             .assertThat()
                     .statusCode(responseCode);
 
-            Reporter.log("Triangle #"+(i+1)+" was successfully added.", true);
+            AsyncReporter.log("Triangle #"+(i+1)+" was successfully added.", true);
         }
     }
 
@@ -601,16 +498,12 @@ public class AddTriangle_Tests extends SetUp {
 
         String payload = "";
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(400)
                 .contentType(ContentType.JSON)
@@ -624,15 +517,11 @@ public class AddTriangle_Tests extends SetUp {
             "that the response has the Code 400 and a proper error message.")
     public void addTriangle_noPayload_Test() {
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(400)
                 .contentType(ContentType.JSON)
@@ -641,16 +530,11 @@ public class AddTriangle_Tests extends SetUp {
     }
 
 
+    @RequiredState(TenantState.NOT_FULL)
     @Test(description = "Code 405 verification for the /triangle entry point")
     @Description("This test verifies that the response has the Code 405 for the /triangle if an incorrect HTTP method " +
             "was used for the request.")
     public void addTriangle_wrongMethod_Test() {
-        // let's check if there's a room for a new triangles and if not, delete all existed triangles
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.size() >= 10) {
-            deleteAllTriangles(existedTriangles);
-        }
         // let's get a valid sides for a triangle
         double[] sides = genSides(VALID_VALUES, "#", 10);
         // specify the payload without 'separator' part
@@ -660,15 +544,11 @@ public class AddTriangle_Tests extends SetUp {
         List<String> httpMethods = Arrays.asList("GET", "PUT", "DELETE");
 
         for (String method : httpMethods) {
-            given()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
+            given(spec())
                     .contentType(ContentType.JSON).body(payload)
             .when()
                     .request(method, "/")
             .then()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
             .assertThat()
                     .statusCode(405)
                     .body("error", equalTo("Method Not Allowed"),
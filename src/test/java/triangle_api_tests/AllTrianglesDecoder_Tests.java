@@ -0,0 +1,112 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import triangle_api.AllTrianglesDecoder;
+import triangle_api.Triangle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+public class AllTrianglesDecoder_Tests {
+
+    /** This is Data Provider for the decode_invalidBody_Test, it returns bodies which aren't a list of triangles. */
+    @DataProvider(name = "getInvalidBodies")
+    public static Object[][] getInvalidBodies() {
+        return new Object[][]{
+                {""},
+                {"{\"id\": \"1\"}"},
+                {"[{\"id\": \"1\"}, 5]"},
+                {"[{\"id\": \"1\"}"},
+                {"[{\"id\": \"1\", \"firstSide\": }]"}
+        };
+    }
+
+
+    @Test(description = "Verification that the decoder passes every triangle of the body to the consumer")
+    @Description("This test decodes a body with two triangles, an unknown field with a nested value and a side " +
+            "in the wrong format, and verifies the IDs and sides passed to the consumer.")
+    public void decode_Test() throws IOException {
+        String body = "[{\"id\": \"a\", \"firstSide\": 3, \"secondSide\": 4.5, \"thirdSide\": 5.25, " +
+                "\"extra\": {\"nested\": [1, 2]}}, " +
+                "{\"thirdSide\": 1, \"secondSide\": 1, \"firstSide\": \"1\", \"id\": \"b\"}]";
+        List<String> triangles = new ArrayList<>();
+
+        int count = AllTrianglesDecoder.decode(stream(body), (id, firstSide, secondSide, thirdSide) ->
+                triangles.add(id + " " + firstSide + " " + secondSide + " " + thirdSide));
+
+        Assert.assertEquals(count, 2);
+        Assert.assertEquals(triangles, List.of("a 3.0 4.5 5.25", "b NaN 1.0 1.0"));
+        Assert.assertEquals(AllTrianglesDecoder.ids(stream("[]")), List.of());
+    }
+
+
+    @Test(description = "Verification that a single triangle is decoded into the typed model")
+    @Description("This test decodes a body of the GET /triangle/{id} response and verifies the ID and the sides " +
+            "of the triangle.")
+    public void decodeOne_Test() throws IOException {
+        Triangle[] triangle = new Triangle[1];
+
+        AllTrianglesDecoder.decodeOne(stream("{\"id\": \"a\", \"firstSide\": 3.0, \"secondSide\": 4, " +
+                        "\"thirdSide\": 5.5}"),
+                (id, firstSide, secondSide, thirdSide) -> triangle[0] = new Triangle(id, firstSide, secondSide, thirdSide));
+
+        Assert.assertEquals(triangle[0], new Triangle("a", 3.0, 4.0, 5.5));
+        Assert.assertTrue(triangle[0].hasSides(3.0, 4.0, 5.5));
+    }
+
+
+    @Test(description = "Verification that the decoder rejects a body which isn't a list of triangles",
+            dataProvider = "getInvalidBodies", expectedExceptions = IOException.class)
+    @Description("This test verifies that the decoder throws an IOException for each body of the " +
+            "'getInvalidBodies' Data Provider.")
+    public void decode_invalidBody_Test(String body) throws IOException {
+        AllTrianglesDecoder.decode(stream(body), (id, firstSide, secondSide, thirdSide) -> { });
+    }
+
+
+    @Test(description = "Verification that the decoder reads a large body without keeping it in memory")
+    @Description("This test decodes a generated body of 200000 triangles which is never materialized as a whole " +
+            "and verifies that every triangle was passed to the consumer.")
+    public void decode_largeBody_Test() throws IOException {
+        int triangles = 200_000;
+        String triangle = "{\"id\": \"9ea8c6a6-73f5-4ea1-8ec8-f8a3b00a2564\", " +
+                "\"firstSide\": 3.0, \"secondSide\": 4.0, \"thirdSide\": 5.0}";
+
+        // let's generate the body lazily, so only the decoder could keep it in memory
+        Enumeration<InputStream> parts = new Enumeration<>() {
+            private int next = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next <= triangles;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String part = next == -1 ? "[" : next == triangles ? "]" : (next == 0 ? "" : ",") + triangle;
+                next++;
+                return stream(part);
+            }
+        };
+        double[] perimeter = {0};
+
+        int count = AllTrianglesDecoder.decode(new SequenceInputStream(parts),
+                (id, firstSide, secondSide, thirdSide) -> perimeter[0] += firstSide + secondSide + thirdSide);
+
+        Assert.assertEquals(count, triangles);
+        Assert.assertEquals(perimeter[0], 12.0 * triangles);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,10 +2,10 @@ package triangle_api_tests;
 
 import io.qameta.allure.Description;
 import io.qameta.allure.Issue;
-import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import triangle_api.Fixtures;
 import triangle_api.SetUp;
 
 import java.util.Arrays;
@@ -21,17 +21,8 @@ public class DeleteTriangle_Tests extends SetUp {
     @Description("This test tries to delete an existed triangle by its ID value and verify that the response has " +
             "the Code 200 and the deleted triangle is no longer present in the list of existed ones.")
     public void deleteTriangle_validId_Test() {
-        // let's check if there are some triangles already exists and if not, create a new one
-        List<String> existedTriangles = getAllTriangles();
-
-        String id;
-        // get the ID from just created triangle or pick the 1st one from already existed triangles
-        if (existedTriangles.isEmpty()) {
-            double[] sides = genSides(Strategy.VALID_VALUES,"#", 10);
-            id = createTriangle(sides[0], sides[1], sides[2]);
-        } else {
-            id = existedTriangles.get(0);
-        }
+        // let's take an existing triangle from the fixtures, the test deletes it, so it's consumed rather than leased
+        String id = Fixtures.current().consume(Strategy.VALID_VALUES, 10).id();
 
         deleteOneTriangle(id);
     }
@@ -61,16 +52,12 @@ public class DeleteTriangle_Tests extends SetUp {
             "entry point and verify that the response has the Code 404.")
     public void deleteTriangle_invalidId_Test(String id) {
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .delete("/{triangleID}")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(404);
     }
@@ -80,32 +67,19 @@ public class DeleteTriangle_Tests extends SetUp {
     @Description("This test verifies that the response has the Code 405 for the /triangle/{triangleId} if an " +
             "incorrect HTTP method was used for the request.")
     public void deleteTriangle_wrongMethod_Test() {
-        // let's check if there are some triangles already exists and if not, create a new one
-        List<String> existedTriangles = getAllTriangles();
-
-        String id;
-        // get the ID from just created triangle or pick the 1st one from already existed triangles
-        if (existedTriangles.isEmpty()) {
-            double[] sides = genSides(Strategy.VALID_VALUES,"#", 10);
-            id = createTriangle(sides[0], sides[1], sides[2]);
-        } else {
-            id = existedTriangles.get(0);
-        }
+        // let's take an existing triangle from the fixtures, it's created only if there's none alive yet
+        String id = Fixtures.current().lease(Strategy.VALID_VALUES, 10).id();
 
         // let's specify a list of incorrect http methods for this EP
         List<String> httpMethods = Arrays.asList("POST", "PUT");
 
         for (String method : httpMethods) {
-            given()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
+            given(spec())
                     .contentType(ContentType.JSON)
                     .pathParam("triangleID", id)
             .when()
                     .request(method, "/{triangleID}")
             .then()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
             .assertThat()
                     .statusCode(405)
                     .body("error", equalTo("Method Not Allowed"),
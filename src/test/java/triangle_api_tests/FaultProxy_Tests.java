@@ -0,0 +1,172 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import triangle_api.FaultProxy;
+import triangle_api.Target;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class FaultProxy_Tests {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test(description = "Verification that the proxy forwards the requests with the injected latency")
+    @Description("This test puts the proxy with a fixed delay of 200 ms in front of the target and verifies that " +
+            "GET /triangle/all returns the response of the service no sooner than the delay.")
+    public void forward_fixedLatency_Test() throws Exception {
+        FaultProxy proxy = start("{\"endpoints\": {\"*\": {\"latency\": {\"distribution\": \"fixed\", \"ms\": 200}}}}");
+        try {
+            long start = System.nanoTime();
+            HttpResponse<String> response = getAll(proxy);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            Assert.assertEquals(response.statusCode(), 200, "Unexpected status of the forwarded request.");
+            Assert.assertEquals(response.body(), "[]", "Unexpected body of the forwarded request.");
+            Assert.assertTrue(millis >= 200, "The request wasn't delayed: " + millis + " ms");
+
+            Map<String, Object> row = proxy.report().get(0);
+            Assert.assertEquals(row.get("endpoint"), "GET /triangle/all");
+            Assert.assertEquals(row.get("delayed"), 1L, "Unexpected number of delayed requests.");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+
+    @Test(description = "Verification that a burst answers the requests with the injected status")
+    @Description("This test starts a burst of two 503 responses with the first request and verifies that both " +
+            "requests of the burst get the error of the proxy and the third one is forwarded again.")
+    public void burst_serviceUnavailable_Test() throws Exception {
+        FaultProxy proxy = start("{\"endpoints\": {\"GET /triangle/all\": " +
+                "{\"burst\": {\"probability\": 1, \"length\": 2, \"status\": 503}}}}");
+        try {
+            for (int i = 0; i < 2; i++) {
+                HttpResponse<String> response = getAll(proxy);
+                Assert.assertEquals(response.statusCode(), 503, "The request #" + i + " isn't a part of the burst.");
+                Assert.assertTrue(response.body().contains("Injected by the fault proxy"),
+                        "Unexpected body of the injected error: " + response.body());
+            }
+            // the probability is 1, so the next request starts a new burst
+            Assert.assertEquals(getAll(proxy).statusCode(), 503);
+            Assert.assertEquals(proxy.report().get(0).get("bursts"), 3L, "Unexpected number of burst responses.");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+
+    @Test(description = "Verification that the connection reset and the partial body fail the request")
+    @Description("This test resets every connection of the first proxy and cuts every response body of the second " +
+            "one in half, and verifies that the client fails with an IOException in both cases.")
+    public void reset_partialBody_Test() throws Exception {
+        for (String faults : List.of("{\"reset\": 1}", "{\"partial\": 1}")) {
+            FaultProxy proxy = start("{\"endpoints\": {\"*\": " + faults + "}}");
+            try {
+                Assert.expectThrows(IOException.class, () -> getAll(proxy));
+            } finally {
+                proxy.stop();
+            }
+        }
+    }
+
+    @Test(description = "Verification that a header without a colon is answered with 400")
+    @Description("This test sends a request with a header line without a colon to the proxy and verifies that the " +
+            "proxy responds with 400 and closes the connection, and that the next connection is served as usual.")
+    public void read_malformedHeader_Test() throws Exception {
+        FaultProxy proxy = start("{\"endpoints\": {}}");
+        try {
+            URI uri = URI.create(proxy.baseUri());
+
+            try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+                socket.setSoTimeout(5_000);
+                socket.getOutputStream().write(("GET /triangle/all HTTP/1.1\r\nHost: " + uri.getAuthority()
+                        + "\r\nMalformed header\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+                assertBadRequest(socket);
+            }
+            Assert.assertEquals(getAll(proxy).statusCode(), 200, "The proxy stopped serving the requests.");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @DataProvider(name = "getMalformedLengths")
+    public static Object[][] getMalformedLengths() {
+        return new Object[][]{
+                {"Content-Length: twelve\r\n\r\n"},
+                {"Content-Length: -1\r\n\r\n"},
+                {"Transfer-Encoding: chunked\r\n\r\nzz\r\n"}
+        };
+    }
+
+    @Test(description = "Verification that a malformed length of the body is answered with 400",
+            dataProvider = "getMalformedLengths")
+    @Description("This test sends a request whose Content-Length or chunk size isn't a non-negative number to the " +
+            "proxy and verifies that the proxy responds with 400 and closes the connection, and that the next " +
+            "connection is served as usual.")
+    public void read_malformedLength_Test(String headers) throws Exception {
+        FaultProxy proxy = start("{\"endpoints\": {}}");
+        try {
+            URI uri = URI.create(proxy.baseUri());
+
+            try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+                socket.setSoTimeout(5_000);
+                socket.getOutputStream().write(("POST /triangle HTTP/1.1\r\nHost: " + uri.getAuthority() + "\r\n"
+                        + headers).getBytes(StandardCharsets.US_ASCII));
+
+                assertBadRequest(socket);
+            }
+            Assert.assertEquals(getAll(proxy).statusCode(), 200, "The proxy stopped serving the requests.");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    /** This method verifies that the proxy answered with 400 and closed the connection. */
+    private static void assertBadRequest(Socket socket) throws IOException {
+        String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+
+        Assert.assertTrue(response.startsWith("HTTP/1.1 400 "), "Unexpected response of the proxy: " + response);
+    }
+
+    /** This method starts the proxy in front of the embedded stand-in, the faults are written to a temporary file. */
+    private static FaultProxy start(String faults) throws IOException {
+        if (!Target.isEmbedded()) {
+            throw new SkipException("The proxy is verified with a personal token of its own, run with -D"
+                    + Target.PROPERTY + "=embedded");
+        }
+        Path file = Files.createTempFile("faults", ".json");
+        try {
+            Files.writeString(file, faults, StandardCharsets.UTF_8);
+
+            // the stand-in itself, so the proxy isn't chained to the proxy of the suite
+            return FaultProxy.start(Target.embeddedUri(), file.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static HttpResponse<String> getAll(FaultProxy proxy) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(proxy.baseUri() + "triangle/all"))
+                .header("X-User", UUID.randomUUID().toString())
+                .GET()
+                .build();
+
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+}
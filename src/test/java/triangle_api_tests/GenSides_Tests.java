@@ -0,0 +1,145 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static triangle_api.Helpers.*;
+
+public class GenSides_Tests {
+
+    /** This is Data Provider for the genSides_Test, it returns each strategy with each pattern and bound used by
+     *  the tests, i.e. '#.##', '#.#' and '#' with 1, 10, 100 and 1000 as the bound.
+     */
+    @DataProvider(name = "getStrategies")
+    public static Object[][] getStrategies() {
+        Strategy[] strategies = Strategy.values();
+        String[] patterns = {"#.##", "#.#", "#"};
+        int[] bounds = {1, 10, 100, 1000};
+
+        Object[][] data = new Object[strategies.length * patterns.length * bounds.length][3];
+        int i = 0;
+
+        for (Strategy strategy : strategies) {
+            for (String pattern : patterns) {
+                for (int bound : bounds) {
+                    data[i++] = new Object[]{strategy, pattern, bound};
+                }
+            }
+        }
+        return data;
+    }
+
+
+    @Test(description = "Verification that genSides generates values which fit the specified strategy",
+            dataProvider = "getStrategies")
+    @Description("This test generates 10000 sides with the specified strategy, pattern and bound and verifies that " +
+            "each of them fits the strategy, isn't greater than the bound, and has no more digits after the comma " +
+            "than the pattern allows.")
+    public void genSides_Test(Strategy strategy, String pattern, int bound) {
+        int digits = pattern.contains(".") ? pattern.length() - pattern.indexOf('.') - 1 : 0;
+        double scale = Math.pow(10, digits);
+
+        for (int i = 0; i < 10_000; i++) {
+            double[] sides = genSides(strategy, pattern, bound);
+            String message = strategy + " " + Arrays.toString(sides);
+
+            for (double side : sides) {
+                Assert.assertTrue(side >= 0 && side <= bound, message);
+                Assert.assertEquals(Math.rint(side * scale) / scale, side, message);
+            }
+            double a = sides[0], b = sides[1], c = sides[2];
+            boolean positive = a > 0 && b > 0 && c > 0;
+            boolean valid = a + b > c && a + c > b && b + c > a;
+
+            switch (strategy) {
+                case VALID_VALUES:
+                    Assert.assertTrue(positive && valid, message);
+                    break;
+                case EQUILATERAL_VALUES:
+                    Assert.assertTrue(positive && a == b && b == c, message);
+                    break;
+                case ISOSCELES_VALUES:
+                    Assert.assertTrue(positive && valid && (a == b || a == c || b == c), message);
+                    break;
+                case SUM_VALUES:
+                    Assert.assertTrue(a + b == c || a + c == b || b + c == a, message);
+                    break;
+                case INVALID_VALUES:
+                    Assert.assertTrue(a + b < c || a + c < b || b + c < a, message);
+                    break;
+                case WITH_ZERO_VALUES:
+                    Assert.assertTrue(a == 0 || b == 0 || c == 0, message);
+                    break;
+            }
+        }
+    }
+
+    /** This is Data Provider for the genSides_distribution_Test, it returns each strategy with the patterns and
+     *  bounds which leave at least 100 values for a side, so the spread of the values can be measured.
+     */
+    @DataProvider(name = "getDistributions")
+    public static Object[][] getDistributions() {
+        Strategy[] strategies = Strategy.values();
+        Object[][] ranges = {{"#", 100}, {"#.#", 10}, {"#.##", 1000}};
+
+        Object[][] data = new Object[strategies.length * ranges.length][3];
+        int i = 0;
+
+        for (Strategy strategy : strategies) {
+            for (Object[] range : ranges) {
+                data[i++] = new Object[]{strategy, range[0], range[1]};
+            }
+        }
+        return data;
+    }
+
+
+    @Test(description = "Verification that genSides spreads the values over the whole range and all positions",
+            dataProvider = "getDistributions")
+    @Description("This test generates 30000 sides with the specified strategy, pattern and bound and verifies that " +
+            "the sides reach both ends of the range, that the mean side is the same at each of the three positions, " +
+            "and that the repeated side of the equilateral and isosceles triangles is uniform over the range.")
+    public void genSides_distribution_Test(Strategy strategy, String pattern, int bound) {
+        int draws = 30_000;
+        int[] buckets = new int[10];
+        double[] sums = new double[3];
+        double min = Double.MAX_VALUE;
+        double max = 0;
+
+        for (int i = 0; i < draws; i++) {
+            double[] sides = genSides(strategy, pattern, bound);
+
+            for (int position = 0; position < 3; position++) {
+                sums[position] += sides[position];
+                if (sides[position] > 0) {
+                    min = Math.min(min, sides[position]);
+                    max = Math.max(max, sides[position]);
+                }
+            }
+            if (strategy == Strategy.EQUILATERAL_VALUES || strategy == Strategy.ISOSCELES_VALUES) {
+                // let's take the side which is repeated, i.e. the one of two equal sides
+                double repeated = sides[0] == sides[1] || sides[0] == sides[2] ? sides[0] : sides[1];
+                buckets[(int) Math.ceil(repeated / bound * 10) - 1]++;
+            }
+        }
+        Assert.assertTrue(min < bound * 0.05 && max > bound * 0.95,
+                "The sides don't spread over the range: from " + min + " to " + max);
+
+        // the position of the derived side is random, so each position gets the same sides on average
+        double mean = (sums[0] + sums[1] + sums[2]) / 3;
+        for (double sum : sums) {
+            Assert.assertEquals(sum, mean, mean * 0.03, "The mean side depends on the position: "
+                    + Arrays.toString(sums));
+        }
+        if (strategy == Strategy.EQUILATERAL_VALUES || strategy == Strategy.ISOSCELES_VALUES) {
+            for (int bucket : buckets) {
+                Assert.assertEquals(bucket, draws / 10, draws / 10 * 0.15, "The repeated side isn't uniform: "
+                        + Arrays.toString(buckets));
+            }
+        }
+    }
+}
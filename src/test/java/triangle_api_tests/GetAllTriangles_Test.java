@@ -2,13 +2,17 @@ package triangle_api_tests;
 
 import io.qameta.allure.Description;
 import io.qameta.allure.Issue;
-import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import triangle_api.Fixtures;
 import triangle_api.Helpers;
+import triangle_api.Inventory;
+import triangle_api.RequiredState;
 import triangle_api.SetUp;
+import triangle_api.TenantState;
+import triangle_api.Triangle;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -22,17 +26,15 @@ import static triangle_api.Helpers.*;
 
 public class GetAllTriangles_Test extends SetUp {
 
+    @RequiredState(TenantState.EMPTY)
     @Test(description = "Code 200 and the body verification for the /triangle/all entry point")
     @Description("This test creates a new 10 triangles and verifies that the response from /triangle/all entry point " +
             "shows Code 200 and contains all 10 just created triangles.")
     public void getAllTriangles_Test() {
-        // let's clear up all existed triangles
-        deleteAllTriangles(getAllTriangles());
-
         String id;
         HashMap<String, double[]> triangles = new LinkedHashMap<>();
         // let's create a new 10 triangles and save their IDs and sides to the Map
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < Inventory.LIMIT; i++) {
             double[] sides = genSides(Helpers.Strategy.VALID_VALUES,"#", 10);
             id = createTriangle(sides[0], sides[1], sides[2]);
 
@@ -41,60 +43,45 @@ public class GetAllTriangles_Test extends SetUp {
         // get the list of existed triangles again
         Response response =
 
-                given()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
+                given(spec())
                         .contentType(ContentType.JSON)
                 .when()
                         .get("/all")
                 .then()
-                        .log()
-                        .ifValidationFails(LogDetail.ALL)
                 .assertThat()
                         .statusCode(200)
                         .contentType(ContentType.JSON)
                         .extract()
                         .response();
         // verify that all IDs and sides from the Map are present in the response
-        for (int i = 0; i < 10; i++) {
-            id = response.path("id["+i+"]").toString();
-            double firstSide = response.path("firstSide["+i+"]");
-            double secondSide = response.path("secondSide["+i+"]");
-            double thirdSide = response.path("thirdSide["+i+"]");
+        List<Triangle> existed = Triangle.listOf(response);
+        Assert.assertEquals(existed.size(), Inventory.LIMIT, "The response has an unexpected number of triangles.");
 
-            Assert.assertTrue(triangles.containsKey(id),
+        for (Triangle triangle : existed) {
+            Assert.assertTrue(triangles.containsKey(triangle.id()),
                     "The saved ID and the ID from response are different.");
-            Assert.assertEquals(firstSide, triangles.get(id)[0],
+            Assert.assertEquals(triangle.firstSide(), triangles.get(triangle.id())[0],
                     "The saved 'firstSide' value and the one from the response are different.");
-            Assert.assertEquals(secondSide, triangles.get(id)[1],
+            Assert.assertEquals(triangle.secondSide(), triangles.get(triangle.id())[1],
                     "The saved 'secondSide' value and the one from the response are different.");
-            Assert.assertEquals(thirdSide, triangles.get(id)[2],
+            Assert.assertEquals(triangle.thirdSide(), triangles.get(triangle.id())[2],
                     "The saved 'thirdSide' value and the one from the response are different.");
         }
     }
 
 
+    @RequiredState(TenantState.EMPTY)
     @Test(description = "Code 200 and the body verification for the /triangle/all entry point where there's no " +
             "any triangles")
     @Description("This test verifies that the response from /triangle/all entry point shows Code 200 and has an " +
             "empty body in the response in case there are no triangles exists.")
     public void getAllTriangles_noTriangles_Test() {
-        // let's clear up all existed triangles if there are some
-        List<String> existedTriangles = getAllTriangles();
-        if (!existedTriangles.isEmpty()) {
-            deleteAllTriangles(existedTriangles);
-        }
-
         // get the list of existed triangles again
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
         .when()
                 .get("/all")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(200)
                 .contentType(ContentType.JSON)
@@ -107,26 +94,17 @@ public class GetAllTriangles_Test extends SetUp {
     @Description("This test verifies that the response has the Code 405 for the /triangle/all if an " +
             "incorrect HTTP method was used for the request.")
     public void getAllTriangles_wrongMethod_Test() {
-        // let's check if there are some triangles already exists and if not, create a new one
-        List<String> existedTriangles = getAllTriangles();
-
-        if (existedTriangles.isEmpty()) {
-            double[] sides = genSides(Strategy.VALID_VALUES,"#", 10);
-            createTriangle(sides[0], sides[1], sides[2]);
-        }
+        // let's make sure there's at least one triangle, the fixture is created only if there's none alive yet
+        Fixtures.current().lease(Strategy.VALID_VALUES, 10);
         // let's specify a list of incorrect http methods for this EP
         List<String> httpMethods = Arrays.asList("POST", "PUT", "DELETE");
 
         for (String method : httpMethods) {
-            given()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
+            given(spec())
                     .contentType(ContentType.JSON)
             .when()
                     .request(method, "/all")
             .then()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
                     .assertThat()
             .statusCode(405)
                     .body("error", equalTo("Method Not Allowed"),
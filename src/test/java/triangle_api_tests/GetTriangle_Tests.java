@@ -1,11 +1,13 @@
 package triangle_api_tests;
 
 import io.qameta.allure.Description;
-import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
-import org.testng.Reporter;
 import org.testng.annotations.Test;
+import triangle_api.AsyncReporter;
+import triangle_api.BypassCache;
+import triangle_api.RequiredState;
 import triangle_api.SetUp;
+import triangle_api.TenantState;
 
 import java.util.HashMap;
 
@@ -13,15 +15,14 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static triangle_api.Helpers.*;
 
+@BypassCache
 public class GetTriangle_Tests extends SetUp {
 
+    @RequiredState(TenantState.EMPTY)
     @Test(description = "Code 200 and the content verification for an attempt to get an existed triangle.")
     @Description("This test tries to get a certain triangle by its ID and verify that the response has " +
             "the Code 200 and correct triangle id and sides information.")
     public void getTriangle_validId_Test() {
-        // let's clean up space for a new nine triangles
-        deleteAllTriangles(getAllTriangles());
-
         int bound = 1;
         String pattern = "#.##";
         String id;
@@ -47,16 +48,12 @@ public class GetTriangle_Tests extends SetUp {
         // verify that each created triangle can be found by its ID and has a valid information in the response
         triangles.forEach((key, value) -> {
 
-            given()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
+            given(spec())
                     .contentType(ContentType.JSON)
                     .pathParam("triangleID", key)
             .when()
                     .get("/{triangleID}")
             .then()
-                    .log()
-                    .ifValidationFails(LogDetail.ALL)
                     .assertThat()
             .statusCode(200)
                     .contentType(ContentType.JSON)
@@ -65,7 +62,7 @@ public class GetTriangle_Tests extends SetUp {
                             "secondSide", equalTo(value[1]),
                             "thirdSide", equalTo(value[2]) );
 
-            Reporter.log("The triangle with ID: " +key+ " has a valid information of its sides and ID.",
+            AsyncReporter.log("The triangle with ID: " +key+ " has a valid information of its sides and ID.",
                     true) ;
         });
     }
@@ -78,16 +75,12 @@ public class GetTriangle_Tests extends SetUp {
             "entry point and verify that the response has the Code 404.")
     public void getTriangle_invalidId_Test(String id) {
 
-        given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
+        given(spec())
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .get("/{triangleID}")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(404)
                 .body("error", equalTo("Not Found"),
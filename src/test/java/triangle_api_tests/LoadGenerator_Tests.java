@@ -0,0 +1,51 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import triangle_api.Cassette;
+import triangle_api.Target;
+import triangle_api.load.LoadGenerator;
+import triangle_api.load.LoadReport;
+import triangle_api.load.Operation;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class LoadGenerator_Tests {
+
+    /** This is Data Provider for the loadRun_Test, it returns the closed and the open loop. */
+    @DataProvider(name = "getModes")
+    public static Object[][] getModes() {
+        return new Object[][]{{false}, {true}};
+    }
+
+
+    @Test(description = "Verification that a short load run sends every operation of the mix without errors",
+            dataProvider = "getModes")
+    @Description("This test runs the load for 3 seconds with 2 virtual users and fresh personal tokens, " +
+            "so the triangles of other tests aren't touched, and verifies that every entry point was requested " +
+            "and no request failed. The test is run only against the embedded stand-in, which accepts any token, " +
+            "and not in the replay of a cassette.")
+    public void loadRun_Test(boolean open) {
+        if (!Target.isEmbedded()) {
+            throw new SkipException("The load run requires personal tokens of its own, run with -D"
+                    + Target.PROPERTY + "=embedded");
+        }
+        if (Cassette.isReplay()) {
+            throw new SkipException("The load run measures the service, so it isn't replayed from the cassette");
+        }
+        List<String> tokens = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+
+        LoadReport report = new LoadGenerator(open, 20, tokens, TimeUnit.SECONDS.toNanos(3),
+                LoadGenerator.parseMix(LoadGenerator.DEFAULT_MIX)).run();
+
+        for (Operation operation : Operation.values()) {
+            Assert.assertTrue(report.count(operation) > 0, operation + " wasn't requested:\n" + report);
+        }
+        Assert.assertEquals(report.errors(), 0, "Some requests failed:\n" + report);
+    }
+}
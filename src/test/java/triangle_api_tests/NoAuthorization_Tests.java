@@ -1,13 +1,11 @@
 package triangle_api_tests;
 
 import io.qameta.allure.Description;
-import io.restassured.builder.RequestSpecBuilder;
-import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
 import org.testng.annotations.Test;
-
-import java.util.List;
+import triangle_api.Fixtures;
+import triangle_api.TriangleClient;
 
 import static triangle_api.Helpers.*;
 import static io.restassured.RestAssured.given;
@@ -20,27 +18,19 @@ public class NoAuthorization_Tests {
             "invalid personal token, i.e. 'X-User' value")
     public void addTriangle_code401_Test() {
         // let's set a specification with invalid personal token
-        RequestSpecification spec = new RequestSpecBuilder()
-                .addHeader("X-User", "invalid_personal_token_value")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        RequestSpecification spec = TriangleClient.shared().spec("invalid_personal_token_value");
         // let's specify a valid sides values
         double firstSide = 3, secondSide = 4, thirdSide = 5;
 
         String payload = "{\"separator\": \";\", \"input\": \""+firstSide+";"+secondSide+";"+thirdSide+"\"}";
         // send a valid request with invalid token and verify the response
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(spec)
                 .contentType(ContentType.JSON)
                 .body(payload)
         .when()
                 .post("/")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(401)
                 .contentType(ContentType.JSON)
@@ -53,35 +43,18 @@ public class NoAuthorization_Tests {
             "invalid personal token, i.e. 'X-User' value")
     public void getTriangle_code401_Test() {
         // let's set a specification with invalid personal token
-        RequestSpecification spec = new RequestSpecBuilder()
-                .addHeader("X-User", "invalid_personal_token_value")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
-
-        String id;
-
-        // let's check if there are no triangles yet, if there's none add a new one and save its id,
-        // otherwise, pick some id from existing ones
-        List<String> triangles = getAllTriangles();
-
-        if (triangles.isEmpty() ) {
-            id = createTriangle(2,4,5);
-        } else {
-            id = triangles.get(0);
-        }
+        RequestSpecification spec = TriangleClient.shared().spec("invalid_personal_token_value");
+
+        // let's take an existing triangle of the leased token from the fixtures
+        String id = Fixtures.current().lease(Strategy.VALID_VALUES, 10).id();
         // send a valid request with invalid token and verify the response
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(spec)
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .get("/{triangleID}")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(401)
                 .contentType(ContentType.JSON)
@@ -94,35 +67,18 @@ public class NoAuthorization_Tests {
             "invalid personal token, i.e. 'X-User' value")
     public void deleteTriangle_code401_Test() {
         // let's set a specification with invalid personal token
-        RequestSpecification spec = new RequestSpecBuilder()
-                .addHeader("X-User", "invalid_personal_token_value")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
-
-        String id;
-
-        // let's check if there are no triangles yet, if there's none add a new one and save its id,
-        // otherwise, pick some id from existing ones
-        List<String> triangles = getAllTriangles();
-
-        if (triangles.isEmpty() ) {
-            id = createTriangle(3,7,9);
-        } else {
-            id = triangles.get(0);
-        }
+        RequestSpecification spec = TriangleClient.shared().spec("invalid_personal_token_value");
+
+        // let's take an existing triangle of the leased token from the fixtures
+        String id = Fixtures.current().lease(Strategy.VALID_VALUES, 10).id();
         // send a valid request with invalid token and verify the response
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(spec)
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .delete("/{triangleID}")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(401)
                 .contentType(ContentType.JSON)
@@ -135,23 +91,15 @@ public class NoAuthorization_Tests {
             "invalid personal token, i.e. 'X-User' value")
     public void getTriangleAll_code401_Test() {
         // let's set a specification with invalid personal token
-        RequestSpecification spec = new RequestSpecBuilder()
-                .addHeader("X-User", "invalid_personal_token_value")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
+        RequestSpecification spec = TriangleClient.shared().spec("invalid_personal_token_value");
 
         // send a valid request with invalid token and verify the response
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(spec)
                 .contentType(ContentType.JSON)
         .when()
                 .get("/all")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(401)
                 .contentType(ContentType.JSON)
@@ -164,35 +112,18 @@ public class NoAuthorization_Tests {
             "invalid personal token, i.e. 'X-User' value")
     public void getTrianglePerimeter_code401_Test() {
         // let's set a specification with invalid personal token
-        RequestSpecification spec = new RequestSpecBuilder()
-                .addHeader("X-User", "invalid_personal_token_value")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
-
-        String id;
-
-        // let's check if there are no triangles yet, if there's none add a new one and save its id,
-        // otherwise, pick some id from existing ones
-        List<String> triangles = getAllTriangles();
-
-        if (triangles.isEmpty() ) {
-            id = createTriangle(12,6,8);
-        } else {
-            id = triangles.get(0);
-        }
+        RequestSpecification spec = TriangleClient.shared().spec("invalid_personal_token_value");
+
+        // let's take an existing triangle of the leased token from the fixtures
+        String id = Fixtures.current().lease(Strategy.VALID_VALUES, 10).id();
         // send a valid request with invalid token and verify the response
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(spec)
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .get("/{triangleID}/perimeter")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(401)
                 .contentType(ContentType.JSON)
@@ -205,35 +136,18 @@ public class NoAuthorization_Tests {
             "invalid personal token, i.e. 'X-User' value")
     public void getTriangleArea_code401_Test() {
         // let's set a specification with invalid personal token
-        RequestSpecification spec = new RequestSpecBuilder()
-                .addHeader("X-User", "invalid_personal_token_value")
-                .setBaseUri("https://qa-quiz.natera.com/")
-                .setBasePath("/triangle/")
-                .build();
-
-        String id;
-
-        // let's check if there are no triangles yet, if there's none add a new one and save its id,
-        // otherwise, pick some id from existing ones
-        List<String> triangles = getAllTriangles();
-
-        if (triangles.isEmpty() ) {
-            id = createTriangle(12,6,8);
-        } else {
-            id = triangles.get(0);
-        }
+        RequestSpecification spec = TriangleClient.shared().spec("invalid_personal_token_value");
+
+        // let's take an existing triangle of the leased token from the fixtures
+        String id = Fixtures.current().lease(Strategy.VALID_VALUES, 10).id();
         // send a valid request with invalid token and verify the response
         given()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
                 .spec(spec)
                 .contentType(ContentType.JSON)
                 .pathParam("triangleID", id)
         .when()
                 .get("/{triangleID}/area")
         .then()
-                .log()
-                .ifValidationFails(LogDetail.ALL)
         .assertThat()
                 .statusCode(401)
                 .contentType(ContentType.JSON)
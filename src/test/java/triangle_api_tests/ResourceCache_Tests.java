@@ -0,0 +1,65 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import io.restassured.http.ContentType;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import triangle_api.RequiredState;
+import triangle_api.ResourceCache;
+import triangle_api.SetUp;
+import triangle_api.TenantPool;
+import triangle_api.TenantState;
+import triangle_api.Triangle;
+import triangle_api.TriangleClient;
+
+import static io.restassured.RestAssured.given;
+import static triangle_api.Helpers.*;
+
+public class ResourceCache_Tests extends SetUp {
+
+    @RequiredState(TenantState.NOT_FULL)
+    @Test(description = "Verification that a triangle is taken from the cache until it's deleted")
+    @Description("This test creates and gets a triangle, deletes it behind the cache's back with the unreported " +
+            "specification, verifies that the triangle is still got from the cache with the same sides, then deletes " +
+            "it with the reported one and verifies that the next request reaches the service and gets the Code 404.")
+    public void getTriangle_cachedUntilDeleted_Test() {
+        if (!ResourceCache.isEnabled()) {
+            throw new SkipException("The cache is turned off with -D" + ResourceCache.ENABLED_PROPERTY
+                    + "=false or by the cassette");
+        }
+        double[] sides = genSides(Strategy.VALID_VALUES, "#.#", 10);
+        String id = createTriangle(sides[0], sides[1], sides[2]);
+
+        Triangle first = getTriangle(id);
+
+        // the unreported specification skips the cache, so the cache still has the triangle which the service hasn't
+        given(TriangleClient.shared().unreportedSpec(TenantPool.shared().current()))
+                .contentType(ContentType.JSON)
+                .pathParam("triangleID", id)
+        .when()
+                .delete("/{triangleID}")
+        .then()
+        .assertThat()
+                .statusCode(200);
+
+        Triangle second = getTriangle(id);
+        Assert.assertEquals(second.sides(), first.sides(), "The cached triangle has different sides.");
+
+        // the service answers this DELETE with the Code 404, what matters is that it drops the cached triangle
+        given(spec())
+                .contentType(ContentType.JSON)
+                .pathParam("triangleID", id)
+        .when()
+                .delete("/{triangleID}");
+
+        given(spec())
+                .contentType(ContentType.JSON)
+                .pathParam("triangleID", id)
+        .when()
+                .get("/{triangleID}")
+        .then()
+        .assertThat()
+                .statusCode(404);
+    }
+}
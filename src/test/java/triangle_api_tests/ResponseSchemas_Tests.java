@@ -0,0 +1,59 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import triangle_api.ResponseSchemas;
+import triangle_api.ResponseSchemas.Payload;
+
+public class ResponseSchemas_Tests {
+
+    /** This is Data Provider for the validate_Test, it returns a body which matches the schema of each payload. */
+    @DataProvider(name = "getValidBodies")
+    public static Object[][] getValidBodies() {
+        return new Object[][]{
+                {Payload.TRIANGLE, "{\"id\": \"a\", \"firstSide\": 3.0, \"secondSide\": 4, \"thirdSide\": 5.5}"},
+                {Payload.TRIANGLES, "[]"},
+                {Payload.TRIANGLES, "[{\"id\": \"a\", \"firstSide\": 3.0, \"secondSide\": 4.0, \"thirdSide\": 5.0}]"},
+                {Payload.RESULT, "{\"result\": 6.0}"},
+                {Payload.ERROR, "{\"timestamp\": \"2020-06-15T08:22:12.046+0000\", \"status\": 404, " +
+                        "\"error\": \"Not Found\", \"message\": \"Not Found\", \"path\": \"/triangle/1\"}"}
+        };
+    }
+
+    /** This is Data Provider for the validate_invalidBody_Test, it returns a body which doesn't match the schema. */
+    @DataProvider(name = "getInvalidBodies")
+    public static Object[][] getInvalidBodies() {
+        return new Object[][]{
+                {Payload.TRIANGLE, "{\"id\": \"a\", \"firstSide\": 3.0, \"secondSide\": 4}"},
+                {Payload.TRIANGLE, "{\"id\": \"a\", \"firstSide\": \"3.0\", \"secondSide\": 4, \"thirdSide\": 5}"},
+                {Payload.TRIANGLES, "{\"id\": \"a\"}"},
+                {Payload.TRIANGLES, "[{\"id\": \"a\", \"firstSide\": 3.0, \"secondSide\": 4.0}]"},
+                {Payload.TRIANGLES, "[{\"id\": \"\", \"firstSide\": 3.0, \"secondSide\": 4.0, \"thirdSide\": 5.0}]"},
+                {Payload.TRIANGLES, "[{\"id\": \"a\", \"firstSide\": \"3.0\", \"secondSide\": 4, \"thirdSide\": 5}]"},
+                {Payload.TRIANGLES, "[{\"id\": 1, \"firstSide\": 3.0, \"secondSide\": 4.0, \"thirdSide\": 5.0}]"},
+                {Payload.TRIANGLES, "[{\"id\": \"a\", \"firstSide\": 3, \"secondSide\": 4, \"thirdSide\": 5}, 1]"},
+                {Payload.TRIANGLES, "[{\"id\": \"a\", \"firstSide\": 3.0, \"secondSide\": 4.0, \"thirdSide\": 5.0}"},
+                {Payload.RESULT, "{\"result\": null}"},
+                {Payload.ERROR, "{\"status\": \"404\", \"error\": \"Not Found\"}"},
+                {Payload.ERROR, "Not Found"}
+        };
+    }
+
+
+    @Test(description = "Verification that the valid bodies match the schemas", dataProvider = "getValidBodies")
+    @Description("This test validates each body of the 'getValidBodies' Data Provider against the schema of its " +
+            "payload and verifies that no AssertionError is thrown.")
+    public void validate_Test(Payload payload, String body) {
+        ResponseSchemas.validate(payload, body);
+    }
+
+
+    @Test(description = "Verification that the invalid bodies don't match the schemas",
+            dataProvider = "getInvalidBodies", expectedExceptions = AssertionError.class)
+    @Description("This test validates each body of the 'getInvalidBodies' Data Provider against the schema of its " +
+            "payload and verifies that an AssertionError is thrown.")
+    public void validate_invalidBody_Test(Payload payload, String body) {
+        ResponseSchemas.validate(payload, body);
+    }
+}
@@ -0,0 +1,68 @@
+package triangle_api_tests;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import triangle_api.RequiredState;
+import triangle_api.SetUp;
+import triangle_api.TenantSnapshot;
+import triangle_api.TenantState;
+import triangle_api.Triangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static triangle_api.Helpers.*;
+
+public class TenantSnapshot_Tests extends SetUp {
+
+    @RequiredState(TenantState.EMPTY)
+    @Test(description = "Verification that a snapshot is restored with the minimal set of changes")
+    @Description("This test creates three triangles and takes a snapshot, then deletes one of them, creates two new " +
+            "ones, one of them with the sides of the deleted triangle, and verifies that the restore deletes one " +
+            "triangle and creates none, and that the triangles have the sides of the snapshot again.")
+    public void restore_changedTriangles_Test() {
+        List<double[]> listOfSides = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            listOfSides.add(genSides(Strategy.VALID_VALUES, "#.#", 10));
+        }
+        List<String> listOfIDs = createTriangles(listOfSides);
+
+        TenantSnapshot snapshot = TenantSnapshot.take();
+        Assert.assertEquals(snapshot.triangles().size(), 3, "The snapshot has an unexpected number of triangles.");
+
+        // the deleted triangle comes back with a new ID, and the other new one should be deleted
+        deleteOneTriangle(listOfIDs.get(0));
+        double[] other = genSides(Strategy.VALID_VALUES, "#.#", 10);
+        createTriangles(List.of(listOfSides.get(0), other));
+
+        Assert.assertEquals(snapshot.restore(), 1, "The restore made an unexpected number of changes.");
+
+        List<String> restoredIDs = getAllTriangles();
+        Assert.assertEquals(restoredIDs.size(), 3, "The restored triangles have an unexpected number.");
+        Assert.assertTrue(restoredIDs.containsAll(listOfIDs.subList(1, 3)),
+                "The triangles which weren't changed should be kept: " + restoredIDs);
+
+        List<double[]> restoredSides = new ArrayList<>();
+        for (String id : restoredIDs) {
+            restoredSides.add(getTriangle(id).sides());
+        }
+        for (double[] sides : listOfSides) {
+            Assert.assertTrue(restoredSides.removeIf(restored -> Arrays.equals(restored, sides)),
+                    "The triangle with sides " + Arrays.toString(sides) + " wasn't restored.");
+        }
+    }
+
+
+    @Test(description = "Verification that an unchanged snapshot is restored without any request but /all")
+    @Description("This test takes a snapshot of the triangles, restores it right away and verifies that no triangle " +
+            "was deleted or created.")
+    public void restore_unchangedTriangles_Test() {
+        TenantSnapshot snapshot = TenantSnapshot.take();
+        List<Triangle> triangles = snapshot.triangles();
+
+        Assert.assertEquals(snapshot.restore(), 0, "The restore made changes to the unchanged triangles.");
+        Assert.assertEquals(TenantSnapshot.take().triangles(), triangles, "The triangles were changed.");
+    }
+}